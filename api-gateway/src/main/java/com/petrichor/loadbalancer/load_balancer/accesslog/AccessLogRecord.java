@@ -0,0 +1,118 @@
+package com.petrichor.loadbalancer.load_balancer.accesslog;
+
+import reactor.util.context.ContextView;
+
+/**
+ * What happened to one request, filled in as it goes through the gateway and written as one access-log
+ * line once it completes. It travels in the exchange attributes and in the Reactor context of the request,
+ * so work that outlives the request (background cache refreshes) cannot see it.
+ * <p>
+ * A hedged request has two upstream calls in flight, so the upstream fields are updated under the record's
+ * lock; the record is handed to the writer thread through {@link AccessLogRingBuffer}, which publishes it safely.
+ */
+public final class AccessLogRecord {
+    public static final String ATTRIBUTE = AccessLogRecord.class.getName();
+
+    public enum CacheResult {
+        LOCAL_HIT, REDIS_HIT, STALE, MISS, BYPASS
+    }
+
+    private final long timestampMillis;
+    private final long startNanos;
+    private final String method;
+    private final String path;
+    private String route;
+    private String instance;
+    private CacheResult cacheResult;
+    private int upstreamCalls;
+    private int retries;
+    private String userId;
+    private int status;
+    private long latencyNanos;
+
+    public AccessLogRecord(String method, String path) {
+        this.timestampMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.method = method;
+        this.path = path;
+    }
+
+    /**
+     * @return The record of the request the context belongs to, or {@code null} outside of a request.
+     */
+    public static AccessLogRecord from(ContextView context) {
+        return context.getOrDefault(AccessLogRecord.class, null);
+    }
+
+    /**
+     * Counts a request sent upstream.
+     *
+     * @param attemptNumber 1 for the first attempt; hedges count as calls of the attempt they hedge.
+     */
+    public synchronized void onUpstreamCall(int attemptNumber) {
+        upstreamCalls++;
+        retries = Math.max(retries, attemptNumber - 1);
+    }
+
+    void complete(int status, String userId) {
+        this.latencyNanos = System.nanoTime() - startNanos;
+        this.status = status;
+        this.userId = userId;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public synchronized void setInstance(String instance) {
+        this.instance = instance;
+    }
+
+    public void setCacheResult(CacheResult cacheResult) {
+        this.cacheResult = cacheResult;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public synchronized String getInstance() {
+        return instance;
+    }
+
+    public CacheResult getCacheResult() {
+        return cacheResult;
+    }
+
+    public synchronized int getUpstreamCalls() {
+        return upstreamCalls;
+    }
+
+    public synchronized int getRetries() {
+        return retries;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+}
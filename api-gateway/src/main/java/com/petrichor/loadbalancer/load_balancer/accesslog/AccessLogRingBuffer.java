@@ -0,0 +1,77 @@
+package com.petrichor.loadbalancer.load_balancer.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue from many producers (the event loops) to the single access-log writer, after
+ * Vyukov's bounded MPMC queue. Each slot carries a sequence number: a producer claims the next position
+ * with one CAS, stores its record and publishes it by advancing the slot's sequence; the consumer frees
+ * the slot the same way. A full buffer rejects the record instead of making the producer wait.
+ */
+final class AccessLogRingBuffer {
+    private final AccessLogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // Consumer only
+
+    /**
+     * @param capacity Rounded up to a power of two.
+     */
+    AccessLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.records = new AccessLogRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return Whether the record was queued; {@code false} if the buffer is full.
+     */
+    boolean offer(AccessLogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    records[index] = record;
+                    sequences.set(index, position + 1); // Publishes the record to the consumer
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                return false; // The slot still holds the record from one lap ago
+            } else {
+                position = tail.get(); // Another producer claimed this position
+            }
+        }
+    }
+
+    /**
+     * Hands up to {@code max} queued records to {@code sink}, in order. Only the writer thread may call it.
+     *
+     * @return The number of records drained.
+     */
+    int drain(Consumer<AccessLogRecord> sink, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break; // Empty, or the next producer has not published yet
+            }
+            AccessLogRecord record = records[index];
+            records[index] = null;
+            sequences.set(index, head + records.length); // Frees the slot for the next lap
+            head++;
+            sink.accept(record);
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,71 @@
+package com.petrichor.loadbalancer.load_balancer.accesslog;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.petrichor.loadbalancer.load_balancer.security.AuthenticationWebFilter;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+/**
+ * Opens an {@link AccessLogRecord} for every request and hands it to the {@link AccessLogWriter} once the
+ * response is complete. Runs first, so the latency covers security and rate limiting too and requests
+ * rejected there are logged as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogWebFilter implements WebFilter {
+    // Status of a request whose client went away before the response was sent, as nginx logs it
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final AccessLogWriter accessLog;
+
+    public AccessLogWebFilter(AccessLogWriter accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!accessLog.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        AccessLogRecord record = new AccessLogRecord(request.getMethod().name(), request.getPath().pathWithinApplication().value());
+        exchange.getAttributes().put(AccessLogRecord.ATTRIBUTE, record);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        return chain.filter(exchange)
+                .doOnError(failure::set)
+                .doFinally(signal -> {
+                    record.complete(statusOf(exchange, signal, failure.get()), exchange.getAttribute(AuthenticationWebFilter.USER_ID_ATTRIBUTE));
+                    accessLog.log(record);
+                })
+                .contextWrite(Context.of(AccessLogRecord.class, record));
+    }
+
+    // Errors are turned into responses after the filters have finished, so their status is derived here
+    private static int statusOf(ServerWebExchange exchange, SignalType signal, Throwable error) {
+        if (error instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode().value();
+        }
+        if (error != null) {
+            return 500;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.CANCEL && !exchange.getResponse().isCommitted()) {
+            return CLIENT_CLOSED_REQUEST;
+        }
+        return status != null ? status.value() : 200;
+    }
+}
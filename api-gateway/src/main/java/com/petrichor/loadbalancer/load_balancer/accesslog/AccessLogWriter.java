@@ -0,0 +1,262 @@
+package com.petrichor.loadbalancer.load_balancer.accesslog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.config.AccessLogConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes access-log records as JSON lines to {@code ACCESS_LOG_FILE}. Request threads only sample the
+ * record and queue it in an {@link AccessLogRingBuffer}; one writer thread drains the buffer in batches
+ * into a buffered file, flushes whenever it has caught up and rotates the file by size. Nothing on the
+ * request path takes a lock or touches the file, and records that find the buffer full are dropped
+ * (counted in {@code gateway.accesslog.dropped}) rather than slowing requests down.
+ */
+@Component
+public class AccessLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private static final int BATCH_SIZE = 1024;
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private final AccessLogConfig config;
+    private final AccessLogRingBuffer buffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final long slowNanos;
+    private final double sampleRate;
+    private final long maxFileBytes;
+    private final StringBuilder line = new StringBuilder(256); // Writer thread only
+
+    private Path file;
+    private Writer out;
+    private long fileBytes;
+    private Thread thread;
+    private volatile boolean running;
+
+    public AccessLogWriter(AccessLogConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.buffer = new AccessLogRingBuffer(config.getBufferSize());
+        this.written = Counter.builder("gateway.accesslog.written").register(meterRegistry);
+        this.dropped = Counter.builder("gateway.accesslog.dropped")
+                .description("Access-log records dropped because the writer fell behind")
+                .register(meterRegistry);
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowThresholdMs());
+        this.sampleRate = config.getSuccessSampleRate();
+        this.maxFileBytes = config.getMaxFileSizeMb() * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        file = Paths.get(config.getFile()).toAbsolutePath();
+        try {
+            open();
+        } catch (IOException e) {
+            logger.error("[AccessLogWriter] Cannot open access log {}: {}. Access logging is disabled.", file, e.getMessage());
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("[AccessLogWriter] Writing access log to {} (success sample rate: {}, slow threshold: {}ms)",
+                file, sampleRate, config.getSlowThresholdMs());
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queues a completed record, unless sampled out; never blocks.
+     */
+    public void log(AccessLogRecord record) {
+        if (!isSampled(record)) {
+            return;
+        }
+        if (!buffer.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    // Every error and slow request is kept; successful ones are sampled
+    private boolean isSampled(AccessLogRecord record) {
+        if (record.getStatus() >= 400 || record.getLatencyNanos() >= slowNanos || sampleRate >= 1) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void run() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(config.getFlushIntervalMs(), 1));
+        boolean pending = false;
+        while (running) {
+            int drained = buffer.drain(this::write, BATCH_SIZE);
+            if (drained > 0) {
+                written.increment(drained);
+                pending = true;
+                continue;
+            }
+            if (pending) {
+                flush();
+                pending = false;
+            }
+            LockSupport.parkNanos(idleNanos);
+        }
+        // Shutting down: write what is left
+        written.increment(buffer.drain(this::write, Integer.MAX_VALUE));
+        flush();
+        close();
+    }
+
+    private void write(AccessLogRecord record) {
+        line.setLength(0);
+        format(record, line);
+        try {
+            out.append(line);
+            fileBytes += line.length(); // Lines are ASCII apart from escaped path characters; close enough for rotation
+            if (maxFileBytes > 0 && fileBytes >= maxFileBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            logger.warn("[AccessLogWriter] Failed to write access log {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void format(AccessLogRecord record, StringBuilder sb) {
+        sb.append("{\"ts\":\"").append(Instant.ofEpochMilli(record.getTimestampMillis())).append('"');
+        sb.append(",\"method\":\"").append(record.getMethod()).append('"');
+        sb.append(",\"path\":");
+        appendString(sb, record.getPath());
+        sb.append(",\"route\":");
+        appendString(sb, record.getRoute());
+        sb.append(",\"status\":").append(record.getStatus());
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(record.getLatencyNanos());
+        sb.append(",\"latency_ms\":").append(latencyMicros / 1000).append('.');
+        long fraction = latencyMicros % 1000;
+        if (fraction < 100) {
+            sb.append(fraction < 10 ? "00" : "0");
+        }
+        sb.append(fraction);
+        sb.append(",\"cache\":");
+        appendString(sb, record.getCacheResult() != null ? record.getCacheResult().name() : null);
+        sb.append(",\"instance\":");
+        appendString(sb, record.getInstance());
+        sb.append(",\"upstream_calls\":").append(record.getUpstreamCalls());
+        sb.append(",\"retries\":").append(record.getRetries());
+        sb.append(",\"user\":");
+        appendString(sb, record.getUserId());
+        sb.append("}\n");
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private void open() throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        fileBytes = Files.exists(file) ? Files.size(file) : 0;
+        out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8),
+                WRITE_BUFFER_CHARS);
+    }
+
+    // access.log -> access.log.1 -> ... -> access.log.<max files>, the oldest being deleted
+    private void rotate() {
+        close();
+        try {
+            int maxFiles = config.getMaxFiles();
+            if (maxFiles > 0) {
+                Files.deleteIfExists(rotated(maxFiles));
+                for (int i = maxFiles - 1; i >= 1; i--) {
+                    Path source = rotated(i);
+                    if (Files.exists(source)) {
+                        Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            logger.warn("[AccessLogWriter] Failed to rotate access log {}: {}. Appending to it instead.", file, e.getMessage());
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            logger.error("[AccessLogWriter] Cannot reopen access log {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            logger.warn("[AccessLogWriter] Failed to flush access log {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warn("[AccessLogWriter] Failed to close access log {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
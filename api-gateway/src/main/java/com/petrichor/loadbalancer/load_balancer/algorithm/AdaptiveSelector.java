@@ -0,0 +1,37 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+public class AdaptiveSelector implements InstanceSelector {
+    private final SlowStart slowStart;
+
+    public AdaptiveSelector() {
+        this(SlowStart.DISABLED);
+    }
+
+    public AdaptiveSelector(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        long now = System.nanoTime();
+        ServerInfo best = null;
+        double bestLoad = Double.MAX_VALUE;
+        double bestResponseTime = Double.MAX_VALUE;
+        for (ServerInfo candidate : healthy) {
+            double load = (candidate.getActiveConnections() + 1) / slowStart.factor(candidate, now);
+            if (load > bestLoad) {
+                continue;
+            }
+            double responseTime = candidate.getAvgResponseTime();
+            if (load < bestLoad || responseTime < bestResponseTime) {
+                best = candidate;
+                bestLoad = load;
+                bestResponseTime = responseTime;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,58 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+/**
+ * Second-generation selection API. Implementations choose from a prebuilt {@link InstanceView}
+ * and must not allocate on the selection path (no streams, lambdas capturing state or {@code Optional}).
+ */
+public interface InstanceSelector {
+
+    /**
+     * @return The chosen instance, or {@code null} if the view has no healthy instance.
+     */
+    ServerInfo select(InstanceView view);
+
+    /**
+     * Selection for hash-based selectors, which route requests with the same key to the same instance.
+     *
+     * @param routingHash The request's routing hash from {@code RoutingKeyResolver}, or {@code RoutingKeyResolver.NO_KEY}.
+     */
+    default ServerInfo select(InstanceView view, long routingHash) {
+        return select(view);
+    }
+
+    /**
+     * Selection that avoids instances the request has already been sent to, e.g. for a hedge or a retry.
+     * The selector's own choice is kept when it is not excluded; otherwise the first remaining healthy
+     * instance from a random starting point is taken, so a hash-based selector still spreads the overflow.
+     *
+     * @param excluded Instances not to choose; usually one or two, so it is scanned linearly.
+     * @return The chosen instance, or {@code null} if every healthy instance is excluded.
+     */
+    default ServerInfo select(InstanceView view, long routingHash, List<ServerInfo> excluded) {
+        ServerInfo preferred = select(view, routingHash);
+        if (preferred == null || excluded.isEmpty() || !excluded.contains(preferred)) {
+            return preferred;
+        }
+        ServerInfo[] healthy = view.healthy();
+        int start = ThreadLocalRandom.current().nextInt(healthy.length);
+        for (int i = 0; i < healthy.length; i++) {
+            ServerInfo candidate = healthy[(start + i) % healthy.length];
+            if (!excluded.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether this selector routes on the request's routing hash, i.e. whether callers need to compute it.
+     */
+    default boolean usesRoutingHash() {
+        return false;
+    }
+}
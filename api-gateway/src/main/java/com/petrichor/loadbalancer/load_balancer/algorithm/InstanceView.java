@@ -0,0 +1,109 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.function.Function;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+/**
+ * An immutable view of one service's instances for {@link InstanceSelector}s: all registered members,
+ * plus the subset that is currently eligible for traffic (healthy and not ejected), both as plain arrays.
+ * <p>
+ * A view is stamped with the sum of its members' {@link ServerInfo#getStateVersion() state versions} at the
+ * time it was built, and is rebuilt only when membership changes or one of its own members' eligibility
+ * flips (flips in other services leave it alone), so selection itself never
+ * filters, sorts or allocates. Selectors that need per-membership precomputation (weights, lookup
+ * tables) keep it in the view's selector state, which is dropped together with the view.
+ */
+public final class InstanceView {
+    public static final InstanceView EMPTY = new InstanceView(new ServerInfo[0], new ServerInfo[0], 0);
+
+    private final ServerInfo[] members;
+    private final ServerInfo[] healthy;
+    private final long epoch;
+    private volatile Object selectorState;
+
+    private InstanceView(ServerInfo[] members, ServerInfo[] healthy, long epoch) {
+        this.members = members;
+        this.healthy = healthy;
+        this.epoch = epoch;
+    }
+
+    /**
+     * @param members The registered instances; the array is owned by the view from here on.
+     */
+    public static InstanceView of(ServerInfo[] members) {
+        // Read the epoch before scanning, so a flip during the scan makes the view stale rather than wrong
+        long epoch = stateEpoch(members);
+        int healthyCount = 0;
+        for (ServerInfo member : members) {
+            if (member.isEligible()) {
+                healthyCount++;
+            }
+        }
+        ServerInfo[] healthy;
+        if (healthyCount == members.length) {
+            healthy = members;
+        } else {
+            healthy = new ServerInfo[healthyCount];
+            int next = 0;
+            for (ServerInfo member : members) {
+                if (member.isEligible()) {
+                    healthy[next++] = member;
+                }
+            }
+        }
+        return new InstanceView(members, healthy, epoch);
+    }
+
+    /**
+     * @return This view if it is still current, otherwise a view of the same members rebuilt for the latest state.
+     */
+    public InstanceView refreshed() {
+        return epoch == stateEpoch(members) ? this : of(members);
+    }
+
+    // Versions only grow, so the sum changes whenever any member flips
+    private static long stateEpoch(ServerInfo[] members) {
+        long epoch = 0;
+        for (ServerInfo member : members) {
+            epoch += member.getStateVersion();
+        }
+        return epoch;
+    }
+
+    /**
+     * @return All registered instances. Must not be modified.
+     */
+    public ServerInfo[] members() {
+        return members;
+    }
+
+    /**
+     * @return The instances eligible for traffic. Must not be modified.
+     */
+    public ServerInfo[] healthy() {
+        return healthy;
+    }
+
+    public int healthyCount() {
+        return healthy.length;
+    }
+
+    public boolean isEmpty() {
+        return members.length == 0;
+    }
+
+    /**
+     * Returns the selector's precomputed state for this view, building it on first use. Concurrent first
+     * calls may both build it; builders must therefore be side-effect free.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> S selectorState(Function<InstanceView, S> builder) {
+        Object state = selectorState;
+        if (state == null) {
+            state = builder.apply(this);
+            selectorState = state;
+        }
+        return (S) state;
+    }
+}
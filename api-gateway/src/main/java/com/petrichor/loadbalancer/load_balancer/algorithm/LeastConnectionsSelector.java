@@ -0,0 +1,41 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+public class LeastConnectionsSelector implements InstanceSelector {
+    private final SlowStart slowStart;
+
+    public LeastConnectionsSelector() {
+        this(SlowStart.DISABLED);
+    }
+
+    public LeastConnectionsSelector(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        int count = healthy.length;
+        if (count == 0) {
+            return null;
+        }
+        // Scan from a random offset so ties do not always go to the first instance
+        int offset = count > 1 ? ThreadLocalRandom.current().nextInt(count) : 0;
+        long now = System.nanoTime();
+        ServerInfo best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            ServerInfo candidate = healthy[(offset + i) % count];
+            // Connections relative to the slow-start weight; (n + 1) so an idle warming instance still ranks behind idle warm ones
+            double load = (candidate.getActiveConnections() + 1) / slowStart.factor(candidate, now);
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+}
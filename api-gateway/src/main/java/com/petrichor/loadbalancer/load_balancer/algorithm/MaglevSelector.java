@@ -0,0 +1,114 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.util.RoutingKeyResolver;
+
+/**
+ * Consistent hashing with a Maglev lookup table (Eisenbud et al., NSDI 2016). Each healthy instance
+ * fills the table along its own pseudo-random permutation, taking as many turns per round as its weight,
+ * so the table splits the key space evenly (by weight) and an instance joining or leaving moves only
+ * about its own share of keys. A lookup is one array read; the table is rebuilt per {@link InstanceView}.
+ * <p>
+ * Requests without a routing key are spread randomly.
+ */
+public class MaglevSelector implements InstanceSelector {
+    private static final long OFFSET_SEED = 0x9e3779b97f4a7c15L;
+    private static final long SKIP_SEED = 0xc2b2ae3d27d4eb4fL;
+
+    private final int tableSize;
+    // Bound once; a method reference on this would allocate on every select
+    private final Function<InstanceView, int[]> tableBuilder = this::buildTable;
+
+    /**
+     * @param tableSize Requested lookup table size; rounded up to a prime. It should be well above
+     *                  100x the instance count for an even split.
+     */
+    public MaglevSelector(int tableSize) {
+        this.tableSize = nextPrime(Math.max(tableSize, 2));
+    }
+
+    @Override
+    public boolean usesRoutingHash() {
+        return true;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        return select(view, RoutingKeyResolver.NO_KEY);
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view, long routingHash) {
+        ServerInfo[] healthy = view.healthy();
+        if (healthy.length == 0) {
+            return null;
+        }
+        if (healthy.length == 1) {
+            return healthy[0];
+        }
+        if (routingHash == RoutingKeyResolver.NO_KEY) {
+            return healthy[ThreadLocalRandom.current().nextInt(healthy.length)];
+        }
+        int[] table = view.selectorState(tableBuilder);
+        return healthy[table[(int) Long.remainderUnsigned(routingHash, table.length)]];
+    }
+
+    int[] buildTable(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        int count = healthy.length;
+        int size = tableSize;
+        long[] offsets = new long[count];
+        long[] skips = new long[count];
+        long[] next = new long[count];
+        for (int i = 0; i < count; i++) {
+            String url = healthy[i].getUrl();
+            offsets[i] = Long.remainderUnsigned(RoutingKeyResolver.hash(url, 0, url.length(), OFFSET_SEED), size);
+            skips[i] = Long.remainderUnsigned(RoutingKeyResolver.hash(url, 0, url.length(), SKIP_SEED), size - 1) + 1;
+        }
+
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        int filled = 0;
+        while (true) {
+            for (int i = 0; i < count; i++) {
+                int turns = Math.max(healthy[i].getWeight(), 1);
+                for (int turn = 0; turn < turns; turn++) {
+                    int slot = (int) ((offsets[i] + next[i] * skips[i]) % size);
+                    while (table[slot] >= 0) {
+                        next[i]++;
+                        slot = (int) ((offsets[i] + next[i] * skips[i]) % size);
+                    }
+                    table[slot] = i;
+                    next[i]++;
+                    if (++filled == size) {
+                        return table;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int nextPrime(int value) {
+        int candidate = value;
+        while (!isPrime(candidate)) {
+            candidate++;
+        }
+        return candidate;
+    }
+
+    private static boolean isPrime(int value) {
+        if (value < 2) {
+            return false;
+        }
+        for (int divisor = 2; (long) divisor * divisor <= value; divisor++) {
+            if (value % divisor == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
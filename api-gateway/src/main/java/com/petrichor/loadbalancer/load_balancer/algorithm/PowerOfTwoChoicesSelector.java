@@ -0,0 +1,62 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+/**
+ * Power of two choices over peak-EWMA latency ({@code p2c-ewma}): samples two distinct healthy
+ * instances at random and picks the one with the lower cost, where
+ * cost = (in-flight requests + 1) x peak-EWMA latency. Selection is O(1) regardless of the number of
+ * instances, and a slow or overloaded instance loses almost every comparison it takes part in. The cost
+ * of an instance in its slow-start window is divided by its {@link SlowStart} factor.
+ */
+public class PowerOfTwoChoicesSelector implements InstanceSelector {
+    // Cost of an instance with requests in flight but no latency sample yet: high enough that it is
+    // only chosen over other unmeasured busy instances, so new instances are not flooded
+    private static final double UNMEASURED_PENALTY_NANOS = 1.0e12;
+
+    private final SlowStart slowStart;
+
+    public PowerOfTwoChoicesSelector() {
+        this(SlowStart.DISABLED);
+    }
+
+    public PowerOfTwoChoicesSelector(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        int count = healthy.length;
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return healthy[0];
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(count);
+        int second = random.nextInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        long now = System.nanoTime();
+        ServerInfo a = healthy[first];
+        ServerInfo b = healthy[second];
+        // A warming instance looks as much costlier as its weight is reduced, as in LeastConnectionsSelector
+        return cost(a, now) / slowStart.factor(a, now) <= cost(b, now) / slowStart.factor(b, now) ? a : b;
+    }
+
+    static double cost(ServerInfo server, long nowNanos) {
+        double latency = server.getPeakEwmaLatencyNanos(nowNanos);
+        int inFlight = server.getActiveConnections();
+        if (latency == 0.0 && inFlight > 0) {
+            return UNMEASURED_PENALTY_NANOS + inFlight;
+        }
+        return latency * (inFlight + 1);
+    }
+}
@@ -0,0 +1,33 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+public class RoundRobinSelector implements InstanceSelector {
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final SlowStart slowStart;
+
+    public RoundRobinSelector() {
+        this(SlowStart.DISABLED);
+    }
+
+    public RoundRobinSelector(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        if (healthy.length == 0) {
+            return null;
+        }
+        // Mask the sign bit so the index stays valid after the counter wraps
+        int index = (counter.getAndIncrement() & Integer.MAX_VALUE) % healthy.length;
+        // A warming instance passes its turn to the next one with probability (1 - its slow-start factor)
+        for (int attempt = 1; attempt < healthy.length && !slowStart.admits(healthy[index]); attempt++) {
+            index = (index + 1) % healthy.length;
+        }
+        return healthy[index];
+    }
+}
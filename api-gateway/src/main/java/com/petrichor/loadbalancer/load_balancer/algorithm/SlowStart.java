@@ -0,0 +1,60 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+/**
+ * Slow-start window for instances that have just become eligible for traffic (newly discovered, or
+ * healthy again after a failed check). During the window an instance's effective weight ramps linearly
+ * from a minimum fraction up to full, so a cold instance is not flooded the moment it appears - which
+ * least-connections would otherwise do, since it has no connections yet.
+ */
+public final class SlowStart {
+    public static final SlowStart DISABLED = new SlowStart(0L, 1.0);
+
+    private final long windowNanos;
+    private final double minFactor;
+
+    /**
+     * @param windowNanos Length of the ramp; 0 disables slow start.
+     * @param minFactor Effective weight fraction at the start of the ramp, in (0, 1].
+     */
+    public SlowStart(long windowNanos, double minFactor) {
+        this.windowNanos = Math.max(windowNanos, 0L);
+        this.minFactor = Math.min(Math.max(minFactor, 0.01), 1.0);
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0 && minFactor < 1.0;
+    }
+
+    /**
+     * @return The server's current effective weight fraction, in [minFactor, 1].
+     */
+    public double factor(ServerInfo server, long nowNanos) {
+        if (!isEnabled()) {
+            return 1.0;
+        }
+        long age = nowNanos - server.getEligibleSinceNanos();
+        if (age >= windowNanos) {
+            return 1.0;
+        }
+        if (age <= 0) {
+            return minFactor;
+        }
+        return minFactor + (1.0 - minFactor) * ((double) age / windowNanos);
+    }
+
+    /**
+     * For selectors that pick one candidate at a time: whether to keep this pick, with a probability
+     * equal to the server's current factor. Always {@code true} outside the window.
+     */
+    public boolean admits(ServerInfo server) {
+        if (!isEnabled()) {
+            return true;
+        }
+        double factor = factor(server, System.nanoTime());
+        return factor >= 1.0 || ThreadLocalRandom.current().nextDouble() < factor;
+    }
+}
@@ -0,0 +1,95 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+/**
+ * Smooth weighted round robin, as in nginx: over one cycle every instance is picked in proportion to
+ * its weight, and picks of a heavy instance are interleaved with the others instead of coming in a burst
+ * (weights 5/1/1 give a a b a c a a, not a a a a a b c).
+ * <p>
+ * nginx runs the algorithm under a lock on every pick. Here one full cycle is simulated once per
+ * {@link InstanceView} (i.e. only when the healthy set or the weights change) and stored as a sequence of
+ * indices, so a pick is a single atomic increment and an array read. The cursor lives with the sequence in
+ * the view, so each service walks its own cycle consecutively and a rebuilt view starts a fresh cycle.
+ */
+public class WeightedRoundRobinSelector implements InstanceSelector {
+    private final SlowStart slowStart;
+
+    public WeightedRoundRobinSelector() {
+        this(SlowStart.DISABLED);
+    }
+
+    public WeightedRoundRobinSelector(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    @Override
+    public ServerInfo select(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        if (healthy.length == 0) {
+            return null;
+        }
+        Cycle cycle = view.selectorState(Cycle::new);
+        int[] sequence = cycle.sequence;
+        int position = (cycle.cursor.getAndIncrement() & Integer.MAX_VALUE) % sequence.length;
+        // A warming instance passes its turn on with probability (1 - its slow-start factor)
+        for (int attempt = 1; attempt < healthy.length && !slowStart.admits(healthy[sequence[position]]); attempt++) {
+            position = (position + 1) % sequence.length;
+        }
+        return healthy[sequence[position]];
+    }
+
+    static int[] buildSequence(InstanceView view) {
+        ServerInfo[] healthy = view.healthy();
+        int count = healthy.length;
+        if (count == 0) {
+            return new int[0];
+        }
+        int[] weights = new int[count];
+        int divisor = 0;
+        for (int i = 0; i < count; i++) {
+            weights[i] = Math.max(healthy[i].getWeight(), 1);
+            divisor = gcd(divisor, weights[i]);
+        }
+        int totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            weights[i] /= divisor;
+            totalWeight += weights[i];
+        }
+
+        int[] currentWeights = new int[count];
+        int[] sequence = new int[totalWeight];
+        for (int pick = 0; pick < totalWeight; pick++) {
+            int best = 0;
+            for (int i = 0; i < count; i++) {
+                currentWeights[i] += weights[i];
+                if (currentWeights[i] > currentWeights[best]) {
+                    best = i;
+                }
+            }
+            currentWeights[best] -= totalWeight;
+            sequence[pick] = best;
+        }
+        return sequence;
+    }
+
+    private static final class Cycle {
+        final int[] sequence;
+        final AtomicInteger cursor = new AtomicInteger();
+
+        Cycle(InstanceView view) {
+            this.sequence = buildSequence(view);
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+}
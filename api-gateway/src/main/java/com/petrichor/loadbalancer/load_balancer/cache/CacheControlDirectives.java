@@ -0,0 +1,104 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.util.Locale;
+
+/**
+ * The subset of {@code Cache-Control} directives (RFC 9111) the gateway cache acts on,
+ * parsed from either a request or a response header.
+ */
+public final class CacheControlDirectives {
+
+    public static final CacheControlDirectives NONE = new CacheControlDirectives(false, false, false, false, false, -1, -1);
+
+    private final boolean noStore;
+    private final boolean noCache;
+    private final boolean isPrivate;
+    private final boolean isPublic;
+    private final boolean mustRevalidate;
+    private final long maxAgeSeconds;
+    private final long sharedMaxAgeSeconds;
+
+    private CacheControlDirectives(boolean noStore, boolean noCache, boolean isPrivate, boolean isPublic, boolean mustRevalidate,
+                                   long maxAgeSeconds, long sharedMaxAgeSeconds) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.isPrivate = isPrivate;
+        this.isPublic = isPublic;
+        this.mustRevalidate = mustRevalidate;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.sharedMaxAgeSeconds = sharedMaxAgeSeconds;
+    }
+
+    /**
+     * @param headerValue The raw {@code Cache-Control} value, possibly {@code null}.
+     * @return The parsed directives; unknown directives are ignored.
+     */
+    public static CacheControlDirectives parse(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        boolean mustRevalidate = false;
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+
+        for (String rawDirective : headerValue.split(",")) {
+            String directive = rawDirective.trim().toLowerCase(Locale.ROOT);
+            if (directive.equals("no-store")) {
+                noStore = true;
+            } else if (directive.startsWith("no-cache")) {
+                noCache = true;
+            } else if (directive.startsWith("private")) {
+                isPrivate = true;
+            } else if (directive.equals("public")) {
+                isPublic = true;
+            } else if (directive.equals("must-revalidate")) {
+                mustRevalidate = true;
+            } else if (directive.startsWith("max-age=")) {
+                maxAge = parseSeconds(directive.substring("max-age=".length()));
+            } else if (directive.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(directive.substring("s-maxage=".length()));
+            }
+        }
+        return new CacheControlDirectives(noStore, noCache, isPrivate, isPublic, mustRevalidate, maxAge, sharedMaxAge);
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", "").trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    /**
+     * @return Whether a shared cache may store this response to a request carrying {@code Authorization}:
+     *         only if it says {@code public}, {@code s-maxage} or {@code must-revalidate} (RFC 9111 section 3.5).
+     */
+    public boolean allowsSharedCachingWithAuthorization() {
+        return isPublic || mustRevalidate || sharedMaxAgeSeconds >= 0;
+    }
+
+    /**
+     * @return The freshness lifetime a shared cache should apply ({@code s-maxage} over {@code max-age}),
+     *         or -1 if the header does not specify one.
+     */
+    public long getSharedFreshnessSeconds() {
+        return sharedMaxAgeSeconds >= 0 ? sharedMaxAgeSeconds : maxAgeSeconds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Outcome of a (possibly coalesced) cache fill. A buffered result can be replayed to every caller
+ * that joined the fill; a streaming result (not cacheable, e.g. an error or an oversized body)
+ * can only be relayed once, so it is handed to the first caller that claims it.
+ */
+public final class CacheFillResult {
+    private final String cacheKey;
+    private final CachedResponse buffered;
+    private final ResponseEntity<Flux<DataBuffer>> stream;
+    private final AtomicBoolean streamClaimed = new AtomicBoolean(false);
+
+    private CacheFillResult(String cacheKey, CachedResponse buffered, ResponseEntity<Flux<DataBuffer>> stream) {
+        this.cacheKey = cacheKey;
+        this.buffered = buffered;
+        this.stream = stream;
+    }
+
+    /**
+     * @param cacheKey The key the response was stored under, which may be a {@code Vary} refinement
+     *                 of the key the fill was started for.
+     */
+    public static CacheFillResult buffered(String cacheKey, CachedResponse response) {
+        return new CacheFillResult(cacheKey, response, null);
+    }
+
+    public static CacheFillResult streaming(ResponseEntity<Flux<DataBuffer>> response) {
+        return new CacheFillResult(null, null, response);
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public boolean isBuffered() {
+        return buffered != null;
+    }
+
+    public CachedResponse getBuffered() {
+        return buffered;
+    }
+
+    /**
+     * @return The streaming response for the first caller, or {@code null} if another caller already owns it.
+     */
+    public ResponseEntity<Flux<DataBuffer>> claimStream() {
+        return stream != null && streamClaimed.compareAndSet(false, true) ? stream : null;
+    }
+}
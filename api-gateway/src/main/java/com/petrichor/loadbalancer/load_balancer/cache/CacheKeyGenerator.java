@@ -0,0 +1,160 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+/**
+ * Builds gateway cache keys from a configurable, ordered list of request components
+ * ({@code CACHE_KEY_COMPONENTS}). Supported components:
+ * <ul>
+ *     <li>{@code service}, {@code path}, {@code method}</li>
+ *     <li>{@code query} - the query string with its parameters sorted</li>
+ *     <li>{@code user} - the {@code X-User-Id} injected by the authentication filter</li>
+ *     <li>{@code authorization} - a digest of the {@code Authorization} header</li>
+ *     <li>{@code header:<Name>} - the value of an arbitrary request header</li>
+ * </ul>
+ * Keys that include {@code user} or {@code authorization} are per-identity, which is what allows
+ * responses marked {@code Cache-Control: private} to be cached at all.
+ */
+@Component
+public class CacheKeyGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(CacheKeyGenerator.class);
+
+    public static final String KEY_PREFIX = "api-gateway-cache:";
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private enum ComponentType { SERVICE, PATH, METHOD, QUERY, USER, AUTHORIZATION, HEADER }
+
+    private static final class KeyComponent {
+        final ComponentType type;
+        final String headerName;
+
+        KeyComponent(ComponentType type, String headerName) {
+            this.type = type;
+            this.headerName = headerName;
+        }
+    }
+
+    private final KeyComponent[] components;
+    private final boolean userScoped;
+
+    public CacheKeyGenerator(LoadBalancerConfig config) {
+        List<KeyComponent> parsed = new ArrayList<>();
+        for (String rawComponent : config.getCacheKeyComponents().split(",")) {
+            String component = rawComponent.trim();
+            if (component.isEmpty()) {
+                continue;
+            }
+            if (component.toLowerCase(Locale.ROOT).startsWith("header:")) {
+                parsed.add(new KeyComponent(ComponentType.HEADER, component.substring("header:".length()).trim()));
+            } else {
+                parsed.add(new KeyComponent(ComponentType.valueOf(component.toUpperCase(Locale.ROOT)), null));
+            }
+        }
+        this.components = parsed.toArray(new KeyComponent[0]);
+        this.userScoped = parsed.stream()
+                .anyMatch(c -> c.type == ComponentType.USER || c.type == ComponentType.AUTHORIZATION);
+        logger.info("[CacheKeyGenerator] Cache keys built from: {} (per-identity: {})", config.getCacheKeyComponents(), userScoped);
+    }
+
+    /**
+     * @return The base cache key for a request, before any {@code Vary} refinement.
+     */
+    public String generate(String serviceName, String path, String query, String httpMethod, HttpHeaders headers) {
+        StringBuilder key = new StringBuilder(96).append(KEY_PREFIX);
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                key.append(':');
+            }
+            KeyComponent component = components[i];
+            switch (component.type) {
+                case SERVICE:
+                    key.append(serviceName);
+                    break;
+                case PATH:
+                    key.append(path);
+                    break;
+                case METHOD:
+                    key.append(httpMethod.toUpperCase(Locale.ROOT));
+                    break;
+                case QUERY:
+                    key.append(canonicalQuery(query));
+                    break;
+                case USER:
+                    key.append(nullToEmpty(headers.getFirst(USER_ID_HEADER)));
+                    break;
+                case AUTHORIZATION:
+                    String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+                    key.append(authorization != null ? digest(authorization) : "");
+                    break;
+                case HEADER:
+                    key.append(nullToEmpty(headers.getFirst(component.headerName)));
+                    break;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Refines a base key with the request's values for the headers an upstream response listed in {@code Vary}.
+     */
+    public String variantKey(String baseKey, List<String> varyHeaderNames, HttpHeaders headers) {
+        if (varyHeaderNames == null || varyHeaderNames.isEmpty()) {
+            return baseKey;
+        }
+        StringBuilder values = new StringBuilder();
+        for (String headerName : varyHeaderNames) {
+            values.append(headerName.toLowerCase(Locale.ROOT)).append('=');
+            List<String> headerValues = headers.get(headerName);
+            if (headerValues != null) {
+                values.append(String.join(",", headerValues));
+            }
+            values.append('\n');
+        }
+        return baseKey + ":vary:" + digest(values.toString());
+    }
+
+    public boolean isUserScoped() {
+        return userScoped;
+    }
+
+    private static String canonicalQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        String[] parameters = query.split("&");
+        if (parameters.length > 1) {
+            Arrays.sort(parameters);
+        }
+        return String.join("&", parameters);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Short, key-safe SHA-256 digest (first 128 bits, base64url) so secrets and long values never appear in keys.
+     */
+    static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
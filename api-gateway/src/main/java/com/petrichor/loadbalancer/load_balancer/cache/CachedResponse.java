@@ -0,0 +1,196 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * An immutable, fully buffered upstream response as held by the gateway caches.
+ * The body array is never mutated after construction and may be shared between readers.
+ * <p>
+ * Every entry carries an ETag (the upstream one, or a strong one derived from the body) so that
+ * conditional requests can be answered with 304 straight from the cache.
+ * <p>
+ * Only headers that describe the representation are kept: {@code Set-Cookie} and other per-exchange
+ * headers are dropped so they are never replayed to other clients.
+ */
+public final class CachedResponse {
+    private static final String[] EXCLUDED_HEADERS = {
+            HttpHeaders.SET_COOKIE, "Set-Cookie2", HttpHeaders.CONTENT_LENGTH, "Age"
+    };
+
+    private final int status;
+    private final byte[] body;
+    private final HttpHeaders headers;
+    private final HttpHeaders notModifiedHeaders;
+    private final String etag;
+    private final long storedAtMillis;
+    private final long freshUntilMillis;
+    private final long expiresAtMillis;
+
+    /**
+     * @param status The upstream status code.
+     * @param body The response body.
+     * @param headers The (already hop-by-hop filtered) upstream headers; copied and made read-only,
+     *                with Content-Length fixed to the buffered body size (and absent on a 204).
+     * @param etag The entity tag, or {@code null} to use the upstream one or derive one from the body.
+     *             An unquoted tag is quoted; one that cannot be made valid is replaced by the derived one.
+     * @param storedAtMillis Epoch millis at which the response was fetched from upstream.
+     * @param freshUntilMillis Epoch millis of the soft expiry, after which the entry is revalidated.
+     * @param expiresAtMillis Epoch millis of the hard expiry, after which the entry must not be served.
+     */
+    public CachedResponse(int status, byte[] body, HttpHeaders headers, String etag,
+                          long storedAtMillis, long freshUntilMillis, long expiresAtMillis) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        for (String excluded : EXCLUDED_HEADERS) {
+            copy.remove(excluded);
+        }
+        if (status != HttpStatus.NO_CONTENT.value()) {
+            copy.setContentLength(body.length);
+        }
+        String resolvedEtag = normalizeEtag(etag != null ? etag : copy.getETag());
+        if (resolvedEtag == null) {
+            resolvedEtag = generateEtag(body);
+        }
+        copy.setETag(resolvedEtag);
+
+        this.status = status;
+        this.body = body;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+        this.notModifiedHeaders = HttpHeaders.readOnlyHttpHeaders(notModifiedHeadersOf(copy));
+        this.etag = resolvedEtag;
+        this.storedAtMillis = storedAtMillis;
+        this.freshUntilMillis = freshUntilMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return The headers a 304 response for this entry must repeat (RFC 9110 section 15.4.5).
+     */
+    public HttpHeaders getNotModifiedHeaders() {
+        return notModifiedHeaders;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getStoredAtMillis() {
+        return storedAtMillis;
+    }
+
+    public long getFreshUntilMillis() {
+        return freshUntilMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @return {@code true} once the entry is past its soft expiry and should be revalidated.
+     */
+    public boolean isStale(long nowMillis) {
+        return nowMillis >= freshUntilMillis;
+    }
+
+    /**
+     * @return The header names the upstream listed in {@code Vary}.
+     */
+    public List<String> getVaryHeaderNames() {
+        return headers.getVary();
+    }
+
+    /**
+     * Weak comparison (RFC 9110 section 8.8.3.2) of this entry's ETag against an {@code If-None-Match} list.
+     */
+    public boolean matchesAny(List<String> ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(etag);
+        for (int i = 0; i < ifNoneMatch.size(); i++) {
+            String candidate = ifNoneMatch.get(i);
+            if ("*".equals(candidate) || opaqueTag.equals(stripWeakPrefix(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Approximate retained size in bytes, used to weigh entries in the in-process cache.
+     */
+    public int weight() {
+        return body.length;
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * @return The tag as a valid entity-tag (RFC 9110 section 8.8.3), quoting a bare opaque value such as
+     *         {@code abc123} or {@code W/abc123}, or {@code null} if it is missing or has characters no
+     *         entity-tag may contain.
+     */
+    static String normalizeEtag(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String trimmed = tag.trim();
+        String weakPrefix = trimmed.startsWith("W/") ? "W/" : "";
+        String opaque = trimmed.substring(weakPrefix.length());
+        if (opaque.length() >= 2 && opaque.startsWith("\"") && opaque.endsWith("\"")) {
+            opaque = opaque.substring(1, opaque.length() - 1);
+        }
+        if (opaque.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < opaque.length(); i++) {
+            char c = opaque.charAt(i);
+            if (c <= 0x20 || c == '"' || c == 0x7F) {
+                return null;
+            }
+        }
+        return weakPrefix + "\"" + opaque + "\"";
+    }
+
+    private static HttpHeaders notModifiedHeadersOf(HttpHeaders full) {
+        HttpHeaders notModified = new HttpHeaders();
+        for (String name : new String[] {HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY,
+                HttpHeaders.EXPIRES, HttpHeaders.CONTENT_LOCATION, HttpHeaders.DATE}) {
+            List<String> values = full.get(name);
+            if (values != null) {
+                notModified.put(name, values);
+            }
+        }
+        return notModified;
+    }
+
+    private static String generateEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+/**
+ * Binary envelope for cached responses stored in Redis. Layout (big-endian):
+ * <pre>
+ *   magic 'A' 'G' | version (1) | flags (1, bit 0 = body deflated)
+ *   status (int) | storedAt, freshUntil, expiresAt (long epoch millis)
+ *   etag (UTF) | header line count (short) | per line: name (UTF), value (UTF)
+ *   body length (int, uncompressed) | payload length (int) | payload
+ * </pre>
+ * Bodies of at least the compression threshold are deflated when that actually makes them smaller.
+ * Values that do not start with the magic (e.g. entries written by older gateway versions) decode as
+ * plain bodies that are already stale, so they are served once more and refreshed in the background.
+ * Envelopes that carry the magic but do not parse are corrupt and decode as {@code null}.
+ */
+@Component
+public class CachedResponseCodec {
+    private static final Logger logger = LoggerFactory.getLogger(CachedResponseCodec.class);
+
+    private static final byte MAGIC_0 = 'A';
+    private static final byte MAGIC_1 = 'G';
+    private static final byte VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+
+    private final int compressionThresholdBytes;
+
+    private final long maxBodyBytes;
+
+    public CachedResponseCodec(LoadBalancerConfig config) {
+        this.compressionThresholdBytes = config.getCacheCompressionThresholdBytes();
+        this.maxBodyBytes = config.getCacheMaxBodyBytes();
+    }
+
+    /**
+     * @return The envelope, or {@code null} if the response does not fit the format (a header value over
+     *         64 KB, or more than 65,535 header lines); such a response is simply not stored in Redis.
+     */
+    public byte[] encode(CachedResponse response) {
+        byte[] body = response.getBody();
+        byte[] payload = body;
+        int flags = 0;
+        if (compressionThresholdBytes >= 0 && body.length >= compressionThresholdBytes) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC_0);
+            out.writeByte(MAGIC_1);
+            out.writeByte(VERSION);
+            out.writeByte(flags);
+            out.writeInt(response.getStatus());
+            out.writeLong(response.getStoredAtMillis());
+            out.writeLong(response.getFreshUntilMillis());
+            out.writeLong(response.getExpiresAtMillis());
+            out.writeUTF(response.getEtag());
+
+            HttpHeaders headers = response.getHeaders();
+            int lineCount = 0;
+            for (List<String> values : headers.values()) {
+                lineCount += values.size();
+            }
+            if (lineCount > 0xFFFF) {
+                logger.debug("[CachedResponseCodec] Not encoding a response with {} header lines", lineCount);
+                return null;
+            }
+            out.writeShort(lineCount);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue()) {
+                    out.writeUTF(header.getKey());
+                    out.writeUTF(value);
+                }
+            }
+
+            out.writeInt(body.length);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // writeUTF refuses strings over 64 KB once encoded; nothing else here can fail
+            logger.debug("[CachedResponseCodec] Not encoding cached response: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return The cached response, or {@code null} if the value is a corrupt envelope.
+     */
+    public CachedResponse decode(byte[] value) {
+        if (value.length < 4 || value[0] != MAGIC_0 || value[1] != MAGIC_1 || value[2] != VERSION) {
+            return legacy(value);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+            in.skipBytes(3);
+            int flags = in.readUnsignedByte();
+            int status = in.readInt();
+            long storedAtMillis = in.readLong();
+            long freshUntilMillis = in.readLong();
+            long expiresAtMillis = in.readLong();
+            String etag = in.readUTF();
+
+            HttpHeaders headers = new HttpHeaders();
+            int lineCount = in.readUnsignedShort();
+            for (int i = 0; i < lineCount; i++) {
+                headers.add(in.readUTF(), in.readUTF());
+            }
+
+            int bodyLength = in.readInt();
+            int payloadLength = in.readInt();
+            // Checked before allocating, so a corrupt length cannot request a huge array
+            if (bodyLength < 0 || bodyLength > maxBodyBytes || payloadLength < 0 || payloadLength > in.available()) {
+                throw new IOException("Invalid body length " + bodyLength + " or payload length " + payloadLength);
+            }
+            byte[] payload = new byte[payloadLength];
+            in.readFully(payload);
+            byte[] body = (flags & FLAG_DEFLATED) != 0 ? inflate(payload, bodyLength) : payload;
+
+            return new CachedResponse(status, body, headers, etag, storedAtMillis, freshUntilMillis, expiresAtMillis);
+        } catch (IOException | DataFormatException e) {
+            logger.warn("[CachedResponseCodec] Corrupt cache envelope ({} bytes): {}. Treating it as a miss.", value.length, e.getMessage());
+            return null;
+        }
+    }
+
+    private static CachedResponse legacy(byte[] value) {
+        return new CachedResponse(200, value, HttpHeaders.EMPTY, null, 0L, 0L, System.currentTimeMillis());
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] payload, int bodyLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            byte[] body = new byte[bodyLength];
+            int offset = 0;
+            while (offset < bodyLength && !inflater.finished()) {
+                int read = inflater.inflate(body, offset, bodyLength - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate stream");
+                }
+                offset += read;
+            }
+            if (offset != bodyLength) {
+                throw new DataFormatException("Expected " + bodyLength + " bytes but inflated " + offset);
+            }
+            return body;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+import com.petrichor.loadbalancer.load_balancer.config.LocalCacheConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process (L1) response cache that sits in front of the Redis (L2) cache.
+ * Backed by Caffeine, whose W-TinyLFU policy admits and evicts entries by access frequency,
+ * so a burst of one-off keys cannot flush hot entries such as {@code /features/list}.
+ * Entries are weighed by their size in bytes and expire after the L1 TTL or at their own hard expiry,
+ * whichever comes first, so they never outlive the Redis TTL.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters tagged {@code cache=gateway-l1}.
+ */
+@Component
+public class LocalResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(LocalResponseCache.class);
+
+    static final String CACHE_NAME = "gateway-l1";
+
+    private final boolean enabled;
+    private final long maxTtlNanos;
+    private final Cache<String, CachedResponse> cache;
+
+    public LocalResponseCache(LocalCacheConfig localCacheConfig, LoadBalancerConfig loadBalancerConfig, MeterRegistry meterRegistry) {
+        this.enabled = localCacheConfig.isEnabled();
+
+        long redisTtlSeconds = loadBalancerConfig.getCacheTtlSeconds() > 0 ? loadBalancerConfig.getCacheTtlSeconds() : 60;
+        long ttlSeconds = Math.min(Math.max(localCacheConfig.getTtlSeconds(), 1), redisTtlSeconds);
+        this.maxTtlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(localCacheConfig.getMaxWeightBytes())
+                .weigher((String key, CachedResponse value) -> key.length() + value.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        logger.info("[LocalResponseCache] Initialized (enabled: {}) with max weight: {} bytes, TTL: {}s",
+                enabled, localCacheConfig.getMaxWeightBytes(), ttlSeconds);
+    }
+
+    /**
+     * @param key The gateway cache key.
+     * @return The cached response, or {@code null} on a miss or when the L1 cache is disabled.
+     */
+    public CachedResponse get(String key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (enabled) {
+            cache.put(key, response);
+        }
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    // An entry lives for the L1 TTL, but never past its own hard expiry (e.g. a short upstream max-age)
+    private long remainingNanos(CachedResponse value) {
+        long untilHardExpiry = TimeUnit.MILLISECONDS.toNanos(value.getExpiresAtMillis() - System.currentTimeMillis());
+        return Math.max(0L, Math.min(maxTtlNanos, untilHardExpiry));
+    }
+}
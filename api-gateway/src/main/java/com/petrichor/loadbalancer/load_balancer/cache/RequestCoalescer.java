@@ -0,0 +1,157 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.config.CacheCoalescingConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight deduplication of cache fills. Concurrent callers asking for the same key while a fill
+ * is in progress subscribe to the same shared {@link Mono} instead of each calling upstream, so N
+ * concurrent misses cost one upstream call and one Redis write. The shared flight is dropped as soon
+ * as it terminates; a failed fill is therefore not remembered beyond the callers that joined it.
+ * <p>
+ * When the distributed lock is enabled the flight leader additionally takes a short-lived Redis lock
+ * ({@code SET NX PX}). Replicas that lose the race poll the shared cache for the winner's result and
+ * only fetch themselves if nothing shows up within the configured wait.
+ */
+@Component
+public class RequestCoalescer {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private static final String LOCK_KEY_PREFIX = "api-gateway-lock:";
+
+    // Deletes the lock only if it is still held by the token that acquired it
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final CacheCoalescingConfig config;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration lockTtl;
+    private final Duration lockWait;
+    private final Duration lockPollInterval;
+
+    private final Counter coalescedCounter;
+    private final Counter lockAcquiredCounter;
+    private final Counter lockContendedCounter;
+
+    public RequestCoalescer(CacheCoalescingConfig config, ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.redisTemplate = redisTemplate;
+        this.lockTtl = Duration.ofMillis(config.getDistributedLockTtlMs());
+        this.lockWait = Duration.ofMillis(config.getDistributedLockWaitMs());
+        this.lockPollInterval = Duration.ofMillis(Math.max(config.getDistributedLockPollMs(), 1));
+
+        this.coalescedCounter = Counter.builder("gateway.cache.coalesced")
+                .description("Cache misses that joined an in-flight fill instead of calling upstream")
+                .register(meterRegistry);
+        this.lockAcquiredCounter = Counter.builder("gateway.cache.fill.lock")
+                .tag("result", "acquired")
+                .register(meterRegistry);
+        this.lockContendedCounter = Counter.builder("gateway.cache.fill.lock")
+                .tag("result", "contended")
+                .register(meterRegistry);
+
+        logger.info("[RequestCoalescer] Initialized (enabled: {}, distributed lock: {}, lock TTL: {}ms, wait: {}ms)",
+                config.isEnabled(), config.isDistributedLockEnabled(), lockTtl.toMillis(), lockWait.toMillis());
+    }
+
+    /**
+     * Runs {@code loader} for {@code key} unless a fill for the same key is already in flight,
+     * in which case the caller shares that fill's result.
+     *
+     * @param key The cache key identifying the fill.
+     * @param loader Produces the value from upstream; invoked at most once per flight.
+     * @param peerResult Looks up a value another gateway replica may have stored meanwhile;
+     *                   only used when the distributed lock is enabled and held elsewhere.
+     * @param afterDelivery Receives a shared flight's value once every caller waiting for it has been handed it,
+     *                      e.g. to release what none of them took.
+     * @return The shared result of the fill.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> loader, Supplier<Mono<T>> peerResult, Consumer<T> afterDelivery) {
+        if (!config.isEnabled()) {
+            return Mono.defer(loader);
+        }
+        return Mono.defer(() -> {
+            Mono<?> existing = inFlight.get(key);
+            if (existing != null) {
+                coalescedCounter.increment();
+                return (Mono<T>) existing;
+            }
+            return (Mono<T>) inFlight.computeIfAbsent(key, k -> newFlight(k, loader, peerResult, afterDelivery));
+        });
+    }
+
+    private <T> Mono<T> newFlight(String key, Supplier<Mono<T>> loader, Supplier<Mono<T>> peerResult, Consumer<T> afterDelivery) {
+        Mono<T> source = config.isDistributedLockEnabled()
+                ? withDistributedLock(key, loader, peerResult)
+                : Mono.defer(loader);
+
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        AtomicReference<T> value = new AtomicReference<>();
+        Mono<T> flight = source
+                .doOnNext(value::set)
+                // Runs once the terminal signal has passed through the cache, i.e. after it served every waiting caller
+                .doAfterTerminate(() -> {
+                    T delivered = value.get();
+                    if (delivered != null) {
+                        afterDelivery.accept(delivered);
+                    }
+                })
+                .doFinally(signalType -> inFlight.remove(key, self.get()))
+                .cache();
+        self.set(flight);
+        return flight;
+    }
+
+    private <T> Mono<T> withDistributedLock(String key, Supplier<Mono<T>> loader, Supplier<Mono<T>> peerResult) {
+        String lockKey = LOCK_KEY_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+
+        return redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl)
+                .onErrorResume(error -> {
+                    // Redis trouble must not block the fill; fall back to node-local coalescing only
+                    logger.warn("[RequestCoalescer] Could not acquire fill lock for key {}: {}", key, error.getMessage());
+                    return Mono.just(Boolean.TRUE);
+                })
+                .flatMap(acquired -> {
+                    if (Boolean.TRUE.equals(acquired)) {
+                        lockAcquiredCounter.increment();
+                        return Mono.defer(loader)
+                                .doFinally(signalType -> releaseLock(lockKey, token));
+                    }
+                    lockContendedCounter.increment();
+                    logger.debug("[RequestCoalescer] Fill lock for key {} held by another replica. Waiting up to {}ms.", key, lockWait.toMillis());
+                    return Mono.defer(peerResult)
+                            .repeatWhenEmpty(attempts -> attempts.delayElements(lockPollInterval))
+                            .timeout(lockWait, Mono.empty())
+                            .switchIfEmpty(Mono.defer(loader));
+                });
+    }
+
+    private void releaseLock(String lockKey, String token) {
+        redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), List.of(token))
+                .subscribe(
+                        released -> logger.trace("[RequestCoalescer] Released fill lock {} ({})", lockKey, released),
+                        error -> logger.warn("[RequestCoalescer] Failed to release fill lock {}: {}", lockKey, error.getMessage()));
+    }
+}
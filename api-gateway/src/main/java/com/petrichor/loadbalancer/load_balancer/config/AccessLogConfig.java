@@ -0,0 +1,69 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AccessLogConfig {
+
+    // One JSON line per request, written off the event loops
+    @Value("${ACCESS_LOG_ENABLED:true}")
+    private boolean enabled;
+
+    @Value("${ACCESS_LOG_FILE:logs/access.log}")
+    private String file;
+
+    // The file is rotated to <file>.1 ... <file>.<max files> once it reaches this size
+    @Value("${ACCESS_LOG_MAX_FILE_SIZE_MB:100}")
+    private long maxFileSizeMb;
+
+    @Value("${ACCESS_LOG_MAX_FILES:5}")
+    private int maxFiles;
+
+    // Fraction of successful (1xx-3xx), fast requests logged; errors and slow requests are always logged
+    @Value("${ACCESS_LOG_SUCCESS_SAMPLE_RATE:0.1}")
+    private double successSampleRate;
+
+    @Value("${ACCESS_LOG_SLOW_THRESHOLD_MS:1000}")
+    private long slowThresholdMs;
+
+    // Records waiting to be written; when full, new records are dropped rather than blocking requests
+    @Value("${ACCESS_LOG_BUFFER_SIZE:65536}")
+    private int bufferSize;
+
+    // How long the writer sleeps when it has caught up; buffered lines are flushed before it does
+    @Value("${ACCESS_LOG_FLUSH_INTERVAL_MS:100}")
+    private long flushIntervalMs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getMaxFileSizeMb() {
+        return maxFileSizeMb;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public double getSuccessSampleRate() {
+        return successSampleRate;
+    }
+
+    public long getSlowThresholdMs() {
+        return slowThresholdMs;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+}
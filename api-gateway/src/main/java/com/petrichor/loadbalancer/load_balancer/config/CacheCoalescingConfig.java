@@ -0,0 +1,45 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheCoalescingConfig {
+
+    @Value("${CACHE_COALESCING_ENABLED:true}")
+    private boolean enabled;
+
+    // Extends coalescing across gateway replicas with a short-lived Redis lock per cache key
+    @Value("${CACHE_DISTRIBUTED_LOCK_ENABLED:false}")
+    private boolean distributedLockEnabled;
+
+    @Value("${CACHE_DISTRIBUTED_LOCK_TTL_MS:3000}")
+    private long distributedLockTtlMs;
+
+    // How long a replica that lost the lock waits for the holder to populate Redis before fetching itself
+    @Value("${CACHE_DISTRIBUTED_LOCK_WAIT_MS:1000}")
+    private long distributedLockWaitMs;
+
+    @Value("${CACHE_DISTRIBUTED_LOCK_POLL_MS:50}")
+    private long distributedLockPollMs;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDistributedLockEnabled() {
+        return distributedLockEnabled;
+    }
+
+    public long getDistributedLockTtlMs() {
+        return distributedLockTtlMs;
+    }
+
+    public long getDistributedLockWaitMs() {
+        return distributedLockWaitMs;
+    }
+
+    public long getDistributedLockPollMs() {
+        return distributedLockPollMs;
+    }
+}
@@ -0,0 +1,41 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ClientRateLimitConfig {
+
+    // When enabled, every client (authenticated user, or remote address when anonymous) gets its own token buckets
+    @Value("${CLIENT_RATELIMIT_ENABLED:false}")
+    private boolean enabled;
+
+    // Comma-separated rules as <path pattern>:<role>=<permits per second>[/<burst>]; the first match wins.
+    // The role is a JWT role, * for any authenticated user or anonymous for requests without a user.
+    @Value("${CLIENT_RATELIMIT_RULES:/**:anonymous=10/20,/**:*=50/100}")
+    private String rules;
+
+    // Upper bound on the buckets kept in memory; least recently used clients are forgotten first
+    @Value("${CLIENT_RATELIMIT_MAX_CLIENTS:1000000}")
+    private int maxClients;
+
+    // Buckets untouched for this long are dropped when room is needed; by then they would have refilled anyway
+    @Value("${CLIENT_RATELIMIT_IDLE_EVICTION_SECONDS:600}")
+    private long idleEvictionSeconds;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getRules() {
+        return rules;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public long getIdleEvictionSeconds() {
+        return idleEvictionSeconds;
+    }
+}
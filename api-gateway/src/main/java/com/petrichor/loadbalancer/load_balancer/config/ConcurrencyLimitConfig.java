@@ -0,0 +1,84 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    // When enabled, the adaptive concurrency limit replaces the static per-service rate limiter (RATELIMITER_*)
+    @Value("${CONCURRENCY_LIMIT_ENABLED:false}")
+    private boolean enabled;
+
+    // gradient or vegas
+    @Value("${CONCURRENCY_LIMIT_ALGORITHM:gradient}")
+    private String algorithm;
+
+    // service: one limit per upstream service; instance: one limit per upstream instance
+    @Value("${CONCURRENCY_LIMIT_SCOPE:service}")
+    private String scope;
+
+    @Value("${CONCURRENCY_LIMIT_INITIAL:20}")
+    private int initialLimit;
+
+    @Value("${CONCURRENCY_LIMIT_MIN:4}")
+    private int minLimit;
+
+    @Value("${CONCURRENCY_LIMIT_MAX:500}")
+    private int maxLimit;
+
+    // The limit is re-evaluated at most once per window, and only after this many calls in it
+    @Value("${CONCURRENCY_LIMIT_WINDOW_MS:500}")
+    private long windowMs;
+
+    @Value("${CONCURRENCY_LIMIT_MIN_WINDOW_SAMPLES:10}")
+    private int minWindowSamples;
+
+    // Weight of each new estimate in the limit
+    @Value("${CONCURRENCY_LIMIT_SMOOTHING:0.2}")
+    private double smoothing;
+
+    // gradient: how much slower than its long-term RTT an upstream may get before the limit shrinks
+    @Value("${CONCURRENCY_LIMIT_RTT_TOLERANCE:1.5}")
+    private double rttTolerance;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public int getMinWindowSamples() {
+        return minWindowSamples;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+}
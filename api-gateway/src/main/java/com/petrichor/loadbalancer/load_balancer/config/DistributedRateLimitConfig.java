@@ -0,0 +1,64 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DistributedRateLimitConfig {
+
+    // When enabled, a cluster-wide token bucket in Redis replaces the per-gateway static rate limiter (RATELIMITER_*)
+    @Value("${DISTRIBUTED_RATELIMIT_ENABLED:false}")
+    private boolean enabled;
+
+    // Permits per second per service across all gateway replicas
+    @Value("${DISTRIBUTED_RATELIMIT_PERMITS_PER_SECOND:100}")
+    private double permitsPerSecond;
+
+    // Optional per-service overrides, e.g. FEATURE-SERVICE=3,TOGGLE-SERVICE=50
+    @Value("${DISTRIBUTED_RATELIMIT_SERVICE_PERMITS:}")
+    private String servicePermits;
+
+    // Bucket capacity in seconds of permits, i.e. how large a burst after an idle period may be
+    @Value("${DISTRIBUTED_RATELIMIT_BURST_SECONDS:1}")
+    private double burstSeconds;
+
+    // Upper bound on the tokens a replica leases at once; a lease is also capped at a tenth of a second of permits
+    @Value("${DISTRIBUTED_RATELIMIT_MAX_LEASE:20}")
+    private int maxLease;
+
+    // Leased tokens not used within this time are discarded, so an idle replica does not hoard permits
+    @Value("${DISTRIBUTED_RATELIMIT_LEASE_TTL_MS:1000}")
+    private long leaseTtlMs;
+
+    // Whether requests pass (true) or are rejected (false) while Redis is unreachable
+    @Value("${DISTRIBUTED_RATELIMIT_FAIL_OPEN:true}")
+    private boolean failOpen;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public String getServicePermits() {
+        return servicePermits;
+    }
+
+    public double getBurstSeconds() {
+        return burstSeconds;
+    }
+
+    public int getMaxLease() {
+        return maxLease;
+    }
+
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    public boolean isFailOpen() {
+        return failOpen;
+    }
+}
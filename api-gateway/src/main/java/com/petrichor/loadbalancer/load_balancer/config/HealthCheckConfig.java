@@ -18,6 +18,26 @@ public class HealthCheckConfig {
     @Value("${HEALTHCHECK_TIMEOUT_MS:2000}")
     private long timeoutMs;
 
+    // Each instance's next check is scheduled at the interval +/- this percentage, so checks do not align
+    @Value("${HEALTHCHECK_JITTER_PERCENT:20}")
+    private int jitterPercent;
+
+    // Upper bound on health checks in flight across all instances
+    @Value("${HEALTHCHECK_MAX_CONCURRENCY:16}")
+    private int maxConcurrency;
+
+    // Consecutive passed checks that mark an unhealthy instance healthy again
+    @Value("${HEALTHCHECK_HEALTHY_THRESHOLD:2}")
+    private int healthyThreshold;
+
+    // Consecutive failed checks that mark a healthy instance unhealthy
+    @Value("${HEALTHCHECK_UNHEALTHY_THRESHOLD:3}")
+    private int unhealthyThreshold;
+
+    // A response without a status field within this many bytes fails the check
+    @Value("${HEALTHCHECK_MAX_SCANNED_BYTES:65536}")
+    private int maxScannedBytes;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -33,4 +53,24 @@ public class HealthCheckConfig {
     public long getTimeoutMs() {
         return timeoutMs;
     }
+
+    public int getJitterPercent() {
+        return jitterPercent;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getHealthyThreshold() {
+        return healthyThreshold;
+    }
+
+    public int getUnhealthyThreshold() {
+        return unhealthyThreshold;
+    }
+
+    public int getMaxScannedBytes() {
+        return maxScannedBytes;
+    }
 } 
\ No newline at end of file
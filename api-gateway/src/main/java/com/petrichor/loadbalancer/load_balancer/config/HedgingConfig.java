@@ -0,0 +1,63 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HedgingConfig {
+
+    @Value("${HEDGING_ENABLED:true}")
+    private boolean enabled;
+
+    // Idempotent methods that may be hedged on routes declared with hedge: true
+    @Value("${HEDGING_METHODS:GET,HEAD}")
+    private String methods;
+
+    // A hedge is sent when the first instance has not answered by its own latency at this quantile
+    @Value("${HEDGING_PERCENTILE:0.95}")
+    private double percentile;
+
+    // Floor for the hedge delay, so very fast instances are not hedged on noise
+    @Value("${HEDGING_MIN_DELAY_MS:10}")
+    private long minDelayMs;
+
+    // Instances with fewer recent calls than this have no trustworthy percentile and are not hedged
+    @Value("${HEDGING_MIN_SAMPLES:50}")
+    private int minSamples;
+
+    // Hedges may add at most this percentage of each service's hedgeable requests...
+    @Value("${HEDGING_BUDGET_PERCENT:5}")
+    private double budgetPercent;
+
+    // ...with bursts of at most this many hedges
+    @Value("${HEDGING_BUDGET_BURST:10}")
+    private int budgetBurst;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getMethods() {
+        return methods;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+}
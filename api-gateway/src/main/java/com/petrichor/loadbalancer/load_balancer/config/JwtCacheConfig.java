@@ -0,0 +1,31 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JwtCacheConfig {
+
+    // Caches verified tokens by digest, so a client reusing its token skips signature verification and parsing
+    @Value("${JWT_CACHE_ENABLED:true}")
+    private boolean enabled;
+
+    @Value("${JWT_CACHE_MAX_ENTRIES:100000}")
+    private long maxEntries;
+
+    // An entry never outlives its token's exp (tokens without exp are rejected) and is re-verified after this at the latest
+    @Value("${JWT_CACHE_MAX_TTL_SECONDS:300}")
+    private long maxTtlSeconds;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxTtlSeconds() {
+        return maxTtlSeconds;
+    }
+}
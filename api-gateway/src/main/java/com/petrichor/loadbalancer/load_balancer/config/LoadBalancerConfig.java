@@ -20,9 +20,51 @@ public class LoadBalancerConfig {
     @Value("${loadbalancer.retries:3}")
     private int retries;
 
+    // Time constant of the per-instance latency and error-rate moving averages (incl. the peak EWMA used by p2c-ewma)
+    @Value("${LOADBALANCER_EWMA_DECAY_MS:10000}")
+    private long ewmaDecayMs;
+
+    // Per-instance latency percentiles cover the last one to two of these windows
+    @Value("${LOADBALANCER_LATENCY_WINDOW_MS:30000}")
+    private long latencyWindowMs;
+
+    // Eureka metadata key holding an instance's relative weight for weighted-round-robin
+    @Value("${LOADBALANCER_WEIGHT_METADATA_KEY:weight}")
+    private String weightMetadataKey;
+
+    // Ordered request attributes the maglev algorithm hashes on; see RoutingKeyResolver
+    @Value("${LOADBALANCER_HASH_KEY:header:X-User-Id,path}")
+    private String hashKey;
+
+    // Rounded up to a prime; keep it well above 100x the largest service's instance count
+    @Value("${LOADBALANCER_MAGLEV_TABLE_SIZE:65537}")
+    private int maglevTableSize;
+
+    // New or recovered instances ramp from the minimum weight to full over this window; 0 disables slow start
+    @Value("${LOADBALANCER_SLOW_START_WINDOW_MS:30000}")
+    private long slowStartWindowMs;
+
+    @Value("${LOADBALANCER_SLOW_START_MIN_WEIGHT_PERCENT:10}")
+    private int slowStartMinWeightPercent;
+
     @Value("${LOADBALANCER_CACHE_TTL_SECONDS:60}")
     private int cacheTtlSeconds;
 
+    // After the soft TTL a cached entry is still served, but revalidated in the background
+    @Value("${LOADBALANCER_CACHE_SOFT_TTL_SECONDS:30}")
+    private int cacheSoftTtlSeconds;
+
+    @Value("${LOADBALANCER_CACHE_MAX_BODY_BYTES:1048576}")
+    private long cacheMaxBodyBytes;
+
+    // Cached bodies at least this large are deflated before being written to Redis; -1 disables compression
+    @Value("${LOADBALANCER_CACHE_COMPRESSION_THRESHOLD_BYTES:2048}")
+    private int cacheCompressionThresholdBytes;
+
+    // Ordered request components the cache key is built from; see CacheKeyGenerator
+    @Value("${LOADBALANCER_CACHE_KEY_COMPONENTS:service,path,method,query}")
+    private String cacheKeyComponents;
+
     @PostConstruct
     public void init() {
         logger.info("[LoadBalancerConfig] Initialized with algorithm: '{}', retries: {}, cache TTL: {}s", 
@@ -42,7 +84,51 @@ public class LoadBalancerConfig {
         return retries;
     }
 
+    public long getEwmaDecayMs() {
+        return ewmaDecayMs;
+    }
+
+    public long getLatencyWindowMs() {
+        return latencyWindowMs;
+    }
+
+    public String getWeightMetadataKey() {
+        return weightMetadataKey;
+    }
+
+    public String getHashKey() {
+        return hashKey;
+    }
+
+    public int getMaglevTableSize() {
+        return maglevTableSize;
+    }
+
+    public long getSlowStartWindowMs() {
+        return slowStartWindowMs;
+    }
+
+    public int getSlowStartMinWeightPercent() {
+        return slowStartMinWeightPercent;
+    }
+
     public int getCacheTtlSeconds() {
         return cacheTtlSeconds;
     }
+
+    public int getCacheSoftTtlSeconds() {
+        return cacheSoftTtlSeconds;
+    }
+
+    public long getCacheMaxBodyBytes() {
+        return cacheMaxBodyBytes;
+    }
+
+    public int getCacheCompressionThresholdBytes() {
+        return cacheCompressionThresholdBytes;
+    }
+
+    public String getCacheKeyComponents() {
+        return cacheKeyComponents;
+    }
 }
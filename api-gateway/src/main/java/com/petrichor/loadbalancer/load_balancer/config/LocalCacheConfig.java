@@ -0,0 +1,31 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LocalCacheConfig {
+
+    @Value("${LOCAL_CACHE_ENABLED:true}")
+    private boolean enabled;
+
+    // Upper bound on the summed size of cached keys and bodies, not on the entry count
+    @Value("${LOCAL_CACHE_MAX_WEIGHT_BYTES:67108864}")
+    private long maxWeightBytes;
+
+    // Capped at the Redis TTL so the L1 never serves an entry the L2 has already dropped for long
+    @Value("${LOCAL_CACHE_TTL_SECONDS:10}")
+    private int ttlSeconds;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+}
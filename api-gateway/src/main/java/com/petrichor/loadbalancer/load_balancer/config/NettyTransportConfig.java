@@ -0,0 +1,160 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.netty.channel.EventLoopGroup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Event loops of the inbound server and of the upstream clients, and the transport they run on.
+ * <p>
+ * {@code NETTY_TRANSPORT} selects {@code nio}, {@code epoll} or {@code io_uring}. The native transports
+ * cut syscalls per request (edge-triggered epoll, batched io_uring submissions) and need their library on
+ * the classpath: epoll for linux-x86_64 ships with Reactor Netty, the others come with the
+ * {@code native-transport} Maven profile. When the requested transport is unavailable the gateway falls
+ * back to NIO and says so at startup. Reactor Netty prefers io_uring over epoll when both are present.
+ * <p>
+ * With {@code NETTY_SHARE_EVENT_LOOPS} the upstream clients run on the server's loops, so a proxied
+ * request is read, forwarded and answered on one thread without hand-offs between loops.
+ */
+@Configuration
+public class NettyTransportConfig {
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransportConfig.class);
+
+    private static final String EPOLL = "io.netty.channel.epoll.Epoll";
+    private static final String IO_URING = "io.netty.incubator.channel.uring.IOUring";
+
+    // nio, epoll or io_uring
+    @Value("${NETTY_TRANSPORT:epoll}")
+    private String transport;
+
+    // Threads accepting connections; 0 accepts on the worker loops
+    @Value("${NETTY_SERVER_SELECT_THREADS:0}")
+    private int serverSelectThreads;
+
+    // Event-loop threads serving inbound connections; 0 uses Reactor Netty's default (max(CPUs, 4))
+    @Value("${NETTY_SERVER_WORKER_THREADS:0}")
+    private int serverWorkerThreads;
+
+    // Event-loop threads of the upstream clients when they do not share the server's loops; 0 uses the default
+    @Value("${NETTY_CLIENT_WORKER_THREADS:0}")
+    private int clientWorkerThreads;
+
+    // Whether upstream clients run on the server's event loops rather than on loops of their own
+    @Value("${NETTY_SHARE_EVENT_LOOPS:true}")
+    private boolean shareEventLoops;
+
+    private boolean preferNative;
+    private LoopResources serverLoops;
+    private LoopResources clientLoops;
+
+    @PostConstruct
+    public void init() {
+        String requested = transport.trim().toLowerCase(Locale.ROOT).replace('-', '_');
+        preferNative = switch (requested) {
+            case "nio" -> false;
+            case "epoll", "io_uring" -> true;
+            default -> throw new IllegalArgumentException("Invalid NETTY_TRANSPORT '" + transport + "', expected nio, epoll or io_uring");
+        };
+        String effective = preferNative ? nativeTransport() : "nio";
+        if (effective == null) {
+            logger.warn("[NettyTransportConfig] Transport {} is not available on this platform, falling back to nio", requested);
+            preferNative = false;
+            effective = "nio";
+        } else if (!effective.equals(requested)) {
+            logger.warn("[NettyTransportConfig] Transport {} requested but Reactor Netty selects {}, which is also on the classpath", requested, effective);
+        }
+
+        int workers = serverWorkerThreads > 0 ? serverWorkerThreads : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        serverLoops = LoopResources.create("gateway-server", serverSelectThreads > 0 ? serverSelectThreads : -1, workers, true);
+        int clientWorkers = clientWorkerThreads > 0 ? clientWorkerThreads : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        clientLoops = shareEventLoops ? new SharedLoopResources(serverLoops) : LoopResources.create("gateway-client", clientWorkers, true);
+
+        logger.info("[NettyTransportConfig] Using {} transport: {} server worker thread(s){}, {}",
+                effective, workers,
+                serverSelectThreads > 0 ? " and " + serverSelectThreads + " select thread(s)" : "",
+                shareEventLoops ? "upstream clients on the server loops" : clientWorkers + " upstream client thread(s)");
+    }
+
+    /**
+     * Runs the inbound server on the configured loops and transport.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyTransportCustomizer() {
+        return factory -> factory.addServerCustomizers(server -> server.runOn(serverLoops, preferNative));
+    }
+
+    // Reactor Netty picks io_uring first, then epoll; kqueue is not offered since the gateway targets Linux
+    private static String nativeTransport() {
+        if (isAvailable(IO_URING)) {
+            return "io_uring";
+        }
+        return isAvailable(EPOLL) ? "epoll" : null;
+    }
+
+    private static boolean isAvailable(String className) {
+        try {
+            return (Boolean) Class.forName(className).getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false; // Library absent from the classpath or built for another platform
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientLoops.disposeLater().block();
+        serverLoops.disposeLater().block();
+    }
+
+    /**
+     * @return The loops of the upstream clients, for {@code HttpClient.runOn}.
+     */
+    public LoopResources getClientLoops() {
+        return clientLoops;
+    }
+
+    public boolean isPreferNative() {
+        return preferNative;
+    }
+
+    // Hands the server's worker loops to clients, colocated so that a connection opened from an event loop
+    // stays on that loop; disposal is left to the server's resources
+    private static final class SharedLoopResources implements LoopResources {
+        private final LoopResources server;
+        private volatile EventLoopGroup colocated;
+
+        SharedLoopResources(LoopResources server) {
+            this.server = server;
+        }
+
+        @Override
+        public EventLoopGroup onServer(boolean useNative) {
+            return server.onServer(useNative);
+        }
+
+        @Override
+        public EventLoopGroup onClient(boolean useNative) {
+            EventLoopGroup group = colocated;
+            if (group == null) {
+                group = LoopResources.colocate(server.onServer(useNative));
+                colocated = group;
+            }
+            return group;
+        }
+
+        @Override
+        public boolean daemon() {
+            return server.daemon();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutlierDetectionConfig {
+
+    @Value("${OUTLIER_DETECTION_ENABLED:true}")
+    private boolean enabled;
+
+    // Consecutive failed calls (5xx or transport error) that eject an instance immediately
+    @Value("${OUTLIER_CONSECUTIVE_FAILURES:5}")
+    private int consecutiveFailures;
+
+    // How often success rates are compared and expired ejections are lifted
+    @Value("${OUTLIER_DETECTION_INTERVAL_MS:10000}")
+    private long intervalMs;
+
+    // First ejection lasts this long; each repeated ejection doubles it, up to the maximum
+    @Value("${OUTLIER_BASE_EJECTION_MS:30000}")
+    private long baseEjectionMs;
+
+    @Value("${OUTLIER_MAX_EJECTION_MS:300000}")
+    private long maxEjectionMs;
+
+    // Never eject more than this share of a service's instances
+    @Value("${OUTLIER_MAX_EJECTION_PERCENT:50}")
+    private int maxEjectionPercent;
+
+    // Success-rate detection: only instances with this many calls in the interval are compared...
+    @Value("${OUTLIER_SUCCESS_RATE_MIN_REQUESTS:20}")
+    private int successRateMinRequests;
+
+    // ...and only if at least this many instances of the service qualify
+    @Value("${OUTLIER_SUCCESS_RATE_MIN_HOSTS:3}")
+    private int successRateMinHosts;
+
+    // An instance is an outlier below mean - factor x standard deviation of its peers' success rates
+    @Value("${OUTLIER_SUCCESS_RATE_STDEV_FACTOR:1.9}")
+    private double successRateStdevFactor;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public long getBaseEjectionMs() {
+        return baseEjectionMs;
+    }
+
+    public long getMaxEjectionMs() {
+        return maxEjectionMs;
+    }
+
+    public int getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public int getSuccessRateMinRequests() {
+        return successRateMinRequests;
+    }
+
+    public int getSuccessRateMinHosts() {
+        return successRateMinHosts;
+    }
+
+    public double getSuccessRateStdevFactor() {
+        return successRateStdevFactor;
+    }
+}
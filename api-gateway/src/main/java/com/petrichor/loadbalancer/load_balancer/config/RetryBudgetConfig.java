@@ -0,0 +1,32 @@
+package com.petrichor.loadbalancer.load_balancer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RetryBudgetConfig {
+
+    // When disabled, every retryable failure is retried up to R4J_RETRY_MAX_ATTEMPTS
+    @Value("${RETRY_BUDGET_ENABLED:true}")
+    private boolean enabled;
+
+    // Retries may add at most this percentage of each service's requests...
+    @Value("${RETRY_BUDGET_PERCENT:10}")
+    private double percent;
+
+    // ...with bursts of at most this many retries (also what a quiet service can retry right away)
+    @Value("${RETRY_BUDGET_BURST:10}")
+    private int burst;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getPercent() {
+        return percent;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
@@ -1,52 +1,44 @@
 package com.petrichor.loadbalancer.load_balancer.config;
 
-import java.util.Arrays;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.server.ServerWebExchange;
 
+import com.petrichor.loadbalancer.load_balancer.routing.RouteTable;
 import com.petrichor.loadbalancer.load_balancer.security.AuthenticationWebFilter;
 
+import reactor.core.publisher.Mono;
+
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
     private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final String REFRESH_PATH = "/actuator/refresh";
 
     private final AuthenticationWebFilter authenticationWebFilter;
+    private final RouteTable routeTable;
 
     @Autowired
-    public SecurityConfig(AuthenticationWebFilter authenticationWebFilter) {
+    public SecurityConfig(AuthenticationWebFilter authenticationWebFilter, RouteTable routeTable) {
         this.authenticationWebFilter = authenticationWebFilter;
+        this.routeTable = routeTable;
     }
 
     @Bean
     public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
-        String[] permittedPathsByFilter = {
-            "/auth/auth/login", 
-            "/api/auth/auth/login",
-            "/actuator/**", // Allow direct access to gateway's own actuators
-            "/api-gateway/actuator/**", // Keep for consistency
-            "/auth/actuator/**",
-            "/features/actuator/**",
-            "/toggles/actuator/**",
-            "/analytics/actuator/**"
-        };
-
-
-
-        
-        String[] permittedPathsForSpringSecurity = permittedPathsByFilter; 
-
-        log.info("[SecurityConfig] Configuring Spring Security. Paths permitted by AuthenticationWebFilter (and for permitAll): {}", Arrays.toString(permittedPathsForSpringSecurity));
+        log.info("[SecurityConfig] Configuring Spring Security. Routes declared with auth-required: false are permitted without a JWT");
 
         return http
             .csrf(ServerHttpSecurity.CsrfSpec::disable)
@@ -55,10 +47,18 @@ public class SecurityConfig {
             .logout(ServerHttpSecurity.LogoutSpec::disable)
             .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
             .authorizeExchange(exchanges -> exchanges
-                .pathMatchers(permittedPathsForSpringSecurity).permitAll() // Use the specific list
+                .pathMatchers(HttpMethod.POST, REFRESH_PATH).hasRole("ADMIN") // Reloads the routes, so not for every token holder
+                .matchers(this::isPublicRoute).permitAll() // Same decision as AuthenticationWebFilter, and reloaded with the routes
                 .anyExchange().authenticated()
             )
             .addFilterAt(authenticationWebFilter, SecurityWebFiltersOrder.AUTHENTICATION)
             .build();
     }
+
+    private Mono<ServerWebExchangeMatcher.MatchResult> isPublicRoute(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        return routeTable.isPublic(request.getPath().pathWithinApplication().value(), request.getMethod())
+                ? ServerWebExchangeMatcher.MatchResult.match()
+                : ServerWebExchangeMatcher.MatchResult.notMatch();
+    }
 } 
\ No newline at end of file
@@ -1,15 +1,104 @@
 package com.petrichor.loadbalancer.load_balancer.config;
 
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
 
+/**
+ * Settings of the per-service HTTP clients built by {@code UpstreamClientRegistry}.
+ */
 @Configuration
 public class WebClientConfig {
 
-    @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder
-                .build();
+    // Connection limit per instance (remote address) in each service's pool
+    @Value("${UPSTREAM_MAX_CONNECTIONS:200}")
+    private int maxConnections;
+
+    // Optional per-service overrides, e.g. FEATURE-SERVICE=400,AUTH-SERVICE=50
+    @Value("${UPSTREAM_SERVICE_MAX_CONNECTIONS:}")
+    private String serviceMaxConnections;
+
+    // Requests allowed to wait for a connection to an instance whose limit is reached, and for how long
+    @Value("${UPSTREAM_PENDING_ACQUIRE_MAX:1000}")
+    private int pendingAcquireMax;
+
+    @Value("${UPSTREAM_PENDING_ACQUIRE_TIMEOUT_MS:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    // Idle connections are closed after this long, and every connection after its max lifetime
+    @Value("${UPSTREAM_MAX_IDLE_TIME_MS:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${UPSTREAM_MAX_LIFE_TIME_MS:300000}")
+    private long maxLifeTimeMs;
+
+    // How often idle and expired connections are evicted in the background
+    @Value("${UPSTREAM_EVICT_INTERVAL_MS:30000}")
+    private long evictIntervalMs;
+
+    @Value("${UPSTREAM_CONNECT_TIMEOUT_MS:2000}")
+    private int connectTimeoutMs;
+
+    // Maximum time between reads of a response, including the wait for its headers; 0 disables it
+    @Value("${UPSTREAM_RESPONSE_TIMEOUT_MS:30000}")
+    private long responseTimeoutMs;
+
+    // Services spoken to over cleartext HTTP/2 (prior knowledge), multiplexing requests on few connections; * for all
+    @Value("${UPSTREAM_H2C_SERVICES:}")
+    private String h2cServices;
+
+    // Connections opened to an instance as soon as it appears in discovery; 0 disables pre-warming
+    @Value("${UPSTREAM_PREWARM_CONNECTIONS:2}")
+    private int prewarmConnections;
+
+    // Path requested to open pre-warmed connections; it should be cheap
+    @Value("${UPSTREAM_PREWARM_PATH:${HEALTHCHECK_PATH:/actuator/health}}")
+    private String prewarmPath;
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public String getServiceMaxConnections() {
+        return serviceMaxConnections;
+    }
+
+    public int getPendingAcquireMax() {
+        return pendingAcquireMax;
+    }
+
+    public long getPendingAcquireTimeoutMs() {
+        return pendingAcquireTimeoutMs;
+    }
+
+    public long getMaxIdleTimeMs() {
+        return maxIdleTimeMs;
+    }
+
+    public long getMaxLifeTimeMs() {
+        return maxLifeTimeMs;
+    }
+
+    public long getEvictIntervalMs() {
+        return evictIntervalMs;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    public String getH2cServices() {
+        return h2cServices;
+    }
+
+    public int getPrewarmConnections() {
+        return prewarmConnections;
+    }
+
+    public String getPrewarmPath() {
+        return prewarmPath;
     }
 }
@@ -1,20 +1,40 @@
 package com.petrichor.loadbalancer.load_balancer.factory;
 
-import com.petrichor.loadbalancer.load_balancer.algorithm.AdaptiveAlgorithm;
-import com.petrichor.loadbalancer.load_balancer.algorithm.LeastConnectionsAlgorithm;
-import com.petrichor.loadbalancer.load_balancer.algorithm.LoadBalancerAlgorithm;
-import com.petrichor.loadbalancer.load_balancer.algorithm.RoundRobinAlgorithm;
+import java.util.concurrent.TimeUnit;
+
+import com.petrichor.loadbalancer.load_balancer.algorithm.AdaptiveSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.LeastConnectionsSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.MaglevSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.PowerOfTwoChoicesSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.RoundRobinSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.SlowStart;
+import com.petrichor.loadbalancer.load_balancer.algorithm.WeightedRoundRobinSelector;
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
 
 public class LoadBalancerAlgorithmFactory {
 
-    public static LoadBalancerAlgorithm getAlgorithm(String algorithmName) {
+    public static InstanceSelector getSelector(LoadBalancerConfig config) {
+        SlowStart slowStart = new SlowStart(TimeUnit.MILLISECONDS.toNanos(config.getSlowStartWindowMs()),
+                config.getSlowStartMinWeightPercent() / 100.0);
+        return getSelector(config.getAlgorithm(), slowStart, config.getMaglevTableSize());
+    }
+
+    private static InstanceSelector getSelector(String algorithmName, SlowStart slowStart, int maglevTableSize) {
         switch (algorithmName.toLowerCase()) {
             case "round-robin":
-                return new RoundRobinAlgorithm();
+                return new RoundRobinSelector(slowStart);
             case "least-connections":
-                return new LeastConnectionsAlgorithm();
+                return new LeastConnectionsSelector(slowStart);
             case "adaptive":
-                return new AdaptiveAlgorithm();
+                return new AdaptiveSelector(slowStart);
+            case "p2c-ewma":
+                return new PowerOfTwoChoicesSelector(slowStart);
+            case "weighted-round-robin":
+                return new WeightedRoundRobinSelector(slowStart);
+            case "maglev":
+                // Key affinity wins over ramping: a new instance takes its share of keys at once
+                return new MaglevSelector(maglevTableSize);
             default:
                 throw new IllegalArgumentException("Unknown load balancing algorithm: " + algorithmName);
         }
@@ -0,0 +1,119 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrency limit that adapts to the upstream: requests are admitted while fewer than the current
+ * limit are in flight and rejected immediately otherwise, and a {@link LimitAlgorithm} moves the limit
+ * from the round-trip times of completed calls.
+ * <p>
+ * Samples are aggregated lock-free into windows of at least {@code windowNanos} and
+ * {@code minWindowSamples} calls; the thread that closes a window runs the algorithm, guarded by a flag
+ * so the algorithm itself never runs concurrently. Admission is a single CAS on the in-flight count.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private final LimitAlgorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double estimatedLimit;
+    private volatile int limit;
+
+    private final AtomicBoolean updating = new AtomicBoolean(false);
+    private volatile long windowStartNanos = System.nanoTime();
+    private final AtomicInteger windowSamples = new AtomicInteger();
+    private final AtomicInteger windowMeasured = new AtomicInteger();
+    private final AtomicLong windowRttSumNanos = new AtomicLong();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicBoolean windowDropped = new AtomicBoolean(false);
+
+    public AdaptiveConcurrencyLimiter(LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                                      long windowNanos, int minWindowSamples) {
+        this.algorithm = algorithm;
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = Math.max(minWindowSamples, 1);
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return Whether the request was admitted; if so, it must be followed by exactly one
+     *         {@link #onSample} or {@link #release}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * Ends an admitted request without a sample, e.g. when it was cancelled.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Ends an admitted request and feeds its outcome to the limit.
+     *
+     * @param rttNanos The request's round-trip time.
+     * @param dropped  Whether it failed or timed out; its RTT is then not representative and is ignored.
+     */
+    public void onSample(long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            windowDropped.set(true);
+        } else {
+            windowRttSumNanos.addAndGet(rttNanos);
+            windowMeasured.incrementAndGet();
+        }
+        int samples = windowSamples.incrementAndGet();
+
+        long now = System.nanoTime();
+        if (samples >= minWindowSamples && now - windowStartNanos >= windowNanos && updating.compareAndSet(false, true)) {
+            try {
+                closeWindow(now);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void closeWindow(long now) {
+        int measured = windowMeasured.getAndSet(0);
+        long rttSum = windowRttSumNanos.getAndSet(0);
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        boolean dropped = windowDropped.getAndSet(false);
+        windowSamples.set(0);
+        windowStartNanos = now;
+
+        double next = clamp(algorithm.update(estimatedLimit, measured > 0 ? rttSum / measured : 0L, maxInFlight, dropped));
+        estimatedLimit = next;
+        limit = (int) next;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
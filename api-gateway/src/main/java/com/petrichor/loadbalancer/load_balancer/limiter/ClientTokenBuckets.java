@@ -0,0 +1,144 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+/**
+ * Token buckets for a very large number of clients in bounded memory. Buckets are addressed by a
+ * 64-bit key (a hash of client and rule) and live in open-addressing tables split into lock stripes,
+ * with the state in parallel primitive arrays: about 20 bytes per bucket (40 at worst-case load) instead
+ * of a map entry, a key object and a bucket object each.
+ * <p>
+ * A bucket that has sat idle long enough is indistinguishable from a full, new one, so buckets idle for
+ * {@code idleMillis} are dropped whenever a stripe needs room. If a stripe is still full after that, its
+ * least recently used buckets are dropped, so the table never holds more than {@code maxClients}.
+ */
+public final class ClientTokenBuckets {
+    private static final int STRIPE_COUNT = 64;
+    private static final int INITIAL_SLOTS = 16;
+    private static final long EMPTY = 0L;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final long idleMillis;
+    private final long originNanos = System.nanoTime();
+
+    /**
+     * @param maxClients Upper bound on the number of buckets kept.
+     * @param idleMillis Buckets untouched for this long may be dropped; it should exceed the time any bucket takes to refill.
+     */
+    public ClientTokenBuckets(int maxClients, long idleMillis) {
+        int maxEntriesPerStripe = Math.max((maxClients + STRIPE_COUNT - 1) / STRIPE_COUNT, 1);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+        this.idleMillis = Math.max(idleMillis, 1);
+    }
+
+    /**
+     * Takes a token from the key's bucket, creating a full bucket for a new key.
+     *
+     * @param key              The bucket's key, a hash; 0 shares the bucket of 1.
+     * @param permitsPerSecond Refill rate of the bucket.
+     * @param burst            Capacity of the bucket.
+     * @return 0 if a token was taken, otherwise the milliseconds until the next token is available.
+     */
+    public long tryAcquire(long key, double permitsPerSecond, double burst) {
+        long storedKey = key == EMPTY ? 1L : key;
+        long nowMillis = (System.nanoTime() - originNanos) / 1_000_000L;
+        Stripe stripe = stripes[(int) (storedKey >>> 58)]; // Top 6 bits pick the stripe, low bits the slot
+        synchronized (stripe) {
+            return stripe.tryAcquire(storedKey, permitsPerSecond, burst, nowMillis, idleMillis);
+        }
+    }
+
+    /**
+     * @return The number of buckets currently kept (a moment-in-time estimate).
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    private static final class Stripe {
+        private final int maxEntries;
+        private long[] keys = new long[INITIAL_SLOTS];
+        private float[] tokens = new float[INITIAL_SLOTS];
+        private long[] lastMillis = new long[INITIAL_SLOTS];
+        private volatile int size;
+
+        Stripe(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        long tryAcquire(long key, double permitsPerSecond, double burst, long nowMillis, long idleMillis) {
+            int slot = find(key);
+            if (keys[slot] != key) {
+                makeRoom(nowMillis, idleMillis);
+                slot = find(key);
+                keys[slot] = key;
+                tokens[slot] = (float) burst;
+                lastMillis[slot] = nowMillis;
+                size++;
+            }
+
+            double available = Math.min(burst, tokens[slot] + (nowMillis - lastMillis[slot]) * permitsPerSecond / 1000.0);
+            lastMillis[slot] = nowMillis;
+            if (available >= 1.0) {
+                tokens[slot] = (float) (available - 1.0);
+                return 0L;
+            }
+            tokens[slot] = (float) available;
+            return Math.max(1L, (long) Math.ceil((1.0 - available) * 1000.0 / permitsPerSecond));
+        }
+
+        // Slot holding the key, or the empty slot where it belongs
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Ensures one more bucket fits, keeping the load factor at most 3/4
+        private void makeRoom(long nowMillis, long idleMillis) {
+            if (size < maxEntries) {
+                if (size + 1 > keys.length * 3 / 4) {
+                    rehash(keys.length * 2, nowMillis, Long.MAX_VALUE);
+                }
+                return;
+            }
+            // Full: drop idle buckets, then ever more recently used ones until a quarter of the stripe is free.
+            // An age of 0 drops everything, so this always ends with room.
+            long maxAge = idleMillis;
+            rehash(keys.length, nowMillis, maxAge);
+            while (size > maxEntries * 3 / 4 && maxAge > 0) {
+                maxAge /= 2;
+                rehash(keys.length, nowMillis, maxAge);
+            }
+        }
+
+        // Rebuilds the table at the given capacity, keeping only buckets used within maxAgeMillis
+        private void rehash(int capacity, long nowMillis, long maxAgeMillis) {
+            long[] oldKeys = keys;
+            float[] oldTokens = tokens;
+            long[] oldLastMillis = lastMillis;
+            keys = new long[capacity];
+            tokens = new float[capacity];
+            lastMillis = new long[capacity];
+            int kept = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY || nowMillis - oldLastMillis[i] >= maxAgeMillis) {
+                    continue;
+                }
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                tokens[slot] = oldTokens[i];
+                lastMillis[slot] = oldLastMillis[i];
+                kept++;
+            }
+            size = kept;
+        }
+    }
+}
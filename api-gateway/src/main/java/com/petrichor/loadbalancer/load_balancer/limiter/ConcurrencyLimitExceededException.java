@@ -0,0 +1,14 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A request refused by an {@link AdaptiveConcurrencyLimiter} before it was sent upstream; answered with 503.
+ */
+public class ConcurrencyLimitExceededException extends ResponseStatusException {
+
+    public ConcurrencyLimitExceededException(String target) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Concurrency limit reached for " + target);
+    }
+}
@@ -0,0 +1,43 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+/**
+ * Gradient limit (after Netflix's {@code GradientLimit}): the ratio of the no-load RTT to the window's
+ * RTT, relaxed by {@code tolerance}, scales the limit down (by at most half per window), and a queue
+ * allowance of sqrt(limit) is added on top. While RTTs stay within the tolerance the limit keeps growing;
+ * once queueing pushes them beyond it, the limit settles where the two balance. Results are smoothed,
+ * and the limit is not raised while the upstream is not actually being pushed (fewer than half the
+ * permitted requests in flight).
+ */
+public class GradientLimitAlgorithm extends NoLoadRttLimitAlgorithm {
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final double tolerance;
+    private final double smoothing;
+
+    /**
+     * @param tolerance How much slower than its no-load RTT the upstream may get before the limit shrinks, e.g. 1.5.
+     * @param smoothing Weight of each new estimate in the limit, e.g. 0.2.
+     */
+    public GradientLimitAlgorithm(double tolerance, double smoothing) {
+        this.tolerance = Math.max(tolerance, 1.0);
+        this.smoothing = Math.min(Math.max(smoothing, 0.01), 1.0);
+    }
+
+    @Override
+    protected double estimate(double currentLimit, long rttNanos, long noLoadRttNanos, int maxInFlight, boolean dropped) {
+        double estimate;
+        if (dropped) {
+            estimate = currentLimit * DROP_BACKOFF;
+        } else {
+            if (rttNanos <= 0 || noLoadRttNanos <= 0) {
+                return currentLimit;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * noLoadRttNanos / rttNanos));
+            if (gradient == 1.0 && maxInFlight < currentLimit / 2) {
+                return currentLimit;
+            }
+            estimate = currentLimit * gradient + Math.sqrt(currentLimit);
+        }
+        return currentLimit * (1 - smoothing) + estimate * smoothing;
+    }
+}
@@ -0,0 +1,101 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The local side of a shared token bucket: permits are taken from tokens leased in batches from the
+ * shared bucket, so the shared store is only involved once per batch. When the local tokens run low a
+ * new lease is requested in the background; only a request that finds none left waits for it.
+ * Concurrent lease requests share one in-flight call.
+ * <p>
+ * Leased tokens expire after the lease TTL, which bounds how far the cluster can overshoot the shared
+ * rate to one lease per replica. The tokens and their expiry change together as one immutable
+ * {@link Lease}, so a grant can never be mistaken for part of an expired lease.
+ */
+public final class LeasedTokenBucket {
+    private static final Mono<Boolean> GRANTED = Mono.just(Boolean.TRUE);
+
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final IntFunction<Mono<Long>> leaser;
+    private final AtomicReference<Lease> current = new AtomicReference<>(new Lease(0, System.nanoTime()));
+    private final AtomicReference<Mono<Long>> pendingLease = new AtomicReference<>();
+
+    /**
+     * @param leaser Takes up to the requested number of tokens from the shared bucket and emits how many it got.
+     */
+    public LeasedTokenBucket(int leaseSize, long leaseTtlNanos, IntFunction<Mono<Long>> leaser) {
+        this.leaseSize = Math.max(leaseSize, 1);
+        this.leaseTtlNanos = leaseTtlNanos;
+        this.leaser = leaser;
+    }
+
+    /**
+     * @return Whether a permit was taken. Completes immediately while leased tokens remain; errors of the
+     *         shared bucket are propagated to the callers that had to wait for it.
+     */
+    public Mono<Boolean> acquire() {
+        if (tryTakeLocal()) {
+            if (getLocalTokens() * 2 < leaseSize) {
+                lease().subscribe(granted -> { }, error -> { }); // Failures surface on the next waiting caller
+            }
+            return GRANTED;
+        }
+        return lease().map(granted -> tryTakeLocal());
+    }
+
+    private boolean tryTakeLocal() {
+        while (true) {
+            Lease lease = current.get();
+            long available = lease.available(System.nanoTime()); // Unused tokens of an expired lease go back to nobody
+            if (available <= 0) {
+                return false;
+            }
+            if (current.compareAndSet(lease, new Lease(available - 1, lease.expiresAtNanos))) {
+                return true;
+            }
+        }
+    }
+
+    private Mono<Long> lease() {
+        while (true) {
+            Mono<Long> pending = pendingLease.get();
+            if (pending != null) {
+                return pending;
+            }
+            AtomicReference<Mono<Long>> self = new AtomicReference<>();
+            Mono<Long> flight = Mono.defer(() -> leaser.apply(leaseSize))
+                    .doOnNext(granted -> {
+                        long now = System.nanoTime();
+                        current.updateAndGet(lease -> new Lease(lease.available(now) + granted, now + leaseTtlNanos));
+                    })
+                    .doFinally(signalType -> pendingLease.compareAndSet(self.get(), null))
+                    .cache();
+            self.set(flight);
+            if (pendingLease.compareAndSet(null, flight)) {
+                return flight;
+            }
+        }
+    }
+
+    public long getLocalTokens() {
+        return current.get().available(System.nanoTime());
+    }
+
+    private static final class Lease {
+        final long tokens;
+        final long expiresAtNanos;
+
+        Lease(long tokens, long expiresAtNanos) {
+            this.tokens = tokens;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        long available(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0 ? 0 : tokens;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+/**
+ * Estimates how many requests an upstream can have in flight from the round-trip times it delivers.
+ * Called by {@link AdaptiveConcurrencyLimiter} once per sample window, never concurrently, so
+ * implementations can keep plain mutable state.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @param currentLimit The limit in force during the window.
+     * @param rttNanos     The average round-trip time of the window's successful calls, or 0 if all were dropped.
+     * @param maxInFlight  The highest number of requests in flight during the window.
+     * @param dropped      Whether any call in the window failed or timed out.
+     * @return The new limit; callers clamp it to their configured bounds.
+     */
+    double update(double currentLimit, long rttNanos, int maxInFlight, boolean dropped);
+}
@@ -0,0 +1,55 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base for limits that compare the current RTT with the upstream's no-load RTT, the lowest RTT seen.
+ * <p>
+ * A minimum only ever falls, so it would never notice an upstream that became permanently slower, while
+ * simply resetting it to the current RTT under load would let queueing delay creep into the baseline and
+ * the limit ratchet up. So, like BBR's ProbeRTT, every 30 to 60 windows one window runs at half the limit,
+ * and the RTT measured while the queue drains becomes the new no-load RTT; the limit is then restored.
+ */
+public abstract class NoLoadRttLimitAlgorithm implements LimitAlgorithm {
+    private static final int PROBE_WINDOWS = 30;
+    private static final double PROBE_LIMIT_RATIO = 0.5;
+
+    private long noLoadRttNanos;
+    private int windowsUntilProbe = nextProbe();
+    private double limitBeforeProbe = Double.NaN;
+
+    @Override
+    public final double update(double currentLimit, long rttNanos, int maxInFlight, boolean dropped) {
+        boolean measured = rttNanos > 0 && !dropped;
+        if (!Double.isNaN(limitBeforeProbe)) {
+            double restored = limitBeforeProbe;
+            limitBeforeProbe = Double.NaN;
+            if (measured) {
+                noLoadRttNanos = rttNanos;
+            }
+            return dropped ? estimate(restored, rttNanos, noLoadRttNanos, maxInFlight, true) : restored;
+        }
+        if (measured) {
+            if (--windowsUntilProbe <= 0 && noLoadRttNanos > 0) {
+                windowsUntilProbe = nextProbe();
+                limitBeforeProbe = currentLimit;
+                return currentLimit * PROBE_LIMIT_RATIO;
+            }
+            if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+                noLoadRttNanos = rttNanos;
+            }
+        }
+        return estimate(currentLimit, rttNanos, noLoadRttNanos, maxInFlight, dropped);
+    }
+
+    /**
+     * @param noLoadRttNanos The current no-load RTT estimate, or 0 before the first successful window.
+     * @return The new limit.
+     */
+    protected abstract double estimate(double currentLimit, long rttNanos, long noLoadRttNanos, int maxInFlight, boolean dropped);
+
+    // Jittered so limiters of different services do not probe in lockstep
+    private static int nextProbe() {
+        return PROBE_WINDOWS + ThreadLocalRandom.current().nextInt(PROBE_WINDOWS + 1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A request refused by a gateway rate limit; {@link RateLimitExceededExceptionHandler} answers it with 429 and a {@code Retry-After} header.
+ */
+public class RateLimitExceededException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds When the client may try again; at least 1.
+     */
+    public RateLimitExceededException(String target, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for " + target);
+        this.retryAfterSeconds = Math.max(retryAfterSeconds, 1);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,30 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers a {@link RateLimitExceededException} with 429 and its {@code Retry-After} header. Boot's error
+ * handler (order -1) renders the status of a {@code ResponseStatusException} but drops its headers, so this
+ * one runs before it; every other error is passed on.
+ */
+@Component
+@Order(-2)
+public class RateLimitExceededExceptionHandler implements WebExceptionHandler {
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (!(ex instanceof RateLimitExceededException rateLimitExceeded) || response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        response.setStatusCode(rateLimitExceeded.getStatusCode());
+        response.getHeaders().putAll(rateLimitExceeded.getHeaders());
+        return response.setComplete();
+    }
+}
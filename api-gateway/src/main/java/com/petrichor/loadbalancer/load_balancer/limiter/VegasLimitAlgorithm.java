@@ -0,0 +1,45 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+/**
+ * TCP Vegas style limit (after Netflix's {@code VegasLimit}): estimates the upstream queue as
+ * limit x (1 - noLoadRtt / rtt). A queue of at most log10(limit) grows the limit quickly, a short queue
+ * grows it slowly, and a queue beyond 6 x log10(limit) or any dropped call shrinks it. Results are
+ * smoothed, and the limit is not raised while fewer than half the permitted requests are in flight.
+ */
+public class VegasLimitAlgorithm extends NoLoadRttLimitAlgorithm {
+
+    private final double smoothing;
+
+    /**
+     * @param smoothing Weight of each new estimate in the limit, e.g. 0.2.
+     */
+    public VegasLimitAlgorithm(double smoothing) {
+        this.smoothing = Math.min(Math.max(smoothing, 0.01), 1.0);
+    }
+
+    @Override
+    protected double estimate(double currentLimit, long rttNanos, long noLoadRttNanos, int maxInFlight, boolean dropped) {
+        double step = Math.max(1.0, Math.log10(currentLimit));
+        double estimate;
+        if (dropped) {
+            estimate = currentLimit - step;
+        } else {
+            if (rttNanos <= 0 || noLoadRttNanos <= 0) {
+                return currentLimit;
+            }
+            double queue = Math.ceil(currentLimit * (1 - (double) noLoadRttNanos / rttNanos));
+            if (queue > 6 * step) {
+                estimate = currentLimit - step;
+            } else if (maxInFlight * 2 < currentLimit) {
+                return currentLimit;
+            } else if (queue <= step) {
+                estimate = currentLimit + 6 * step;
+            } else if (queue < 3 * step) {
+                estimate = currentLimit + step;
+            } else {
+                return currentLimit;
+            }
+        }
+        return currentLimit * (1 - smoothing) + estimate * smoothing;
+    }
+}
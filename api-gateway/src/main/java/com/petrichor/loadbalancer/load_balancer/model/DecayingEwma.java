@@ -0,0 +1,40 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-decayed exponentially weighted moving average. Each sample is blended in with weight
+ * {@code 1 - exp(-elapsed / decay)}, where {@code elapsed} is the time since the previous sample, so the
+ * average reflects roughly the last decay window of activity regardless of the request rate.
+ * <p>
+ * Lock-free: the value is held as raw double bits in an {@link AtomicLong} and updated by CAS.
+ */
+public final class DecayingEwma {
+    private final double decayNanos;
+    private final AtomicLong valueBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private final AtomicLong lastSampleNanos;
+
+    public DecayingEwma(long decayNanos) {
+        this.decayNanos = Math.max(decayNanos, 1L);
+        // Backdate the start so the first sample replaces the initial zero almost entirely
+        this.lastSampleNanos = new AtomicLong(System.nanoTime() - Math.min(10 * Math.max(decayNanos, 1L), Long.MAX_VALUE / 4));
+    }
+
+    public void observe(double sample) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(now - lastSampleNanos.getAndSet(now), 0L);
+        double weight = Math.exp(-elapsed / decayNanos);
+
+        long currentBits;
+        long nextBits;
+        do {
+            currentBits = valueBits.get();
+            double next = Double.longBitsToDouble(currentBits) * weight + sample * (1.0 - weight);
+            nextBits = Double.doubleToRawLongBits(next);
+        } while (!valueBits.compareAndSet(currentBits, nextBits));
+    }
+
+    public double get() {
+        return Double.longBitsToDouble(valueBits.get());
+    }
+}
@@ -0,0 +1,129 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram over a sliding window.
+ * <p>
+ * Values are recorded in microseconds into buckets of 16 linear sub-buckets per power of two
+ * (at most ~6% relative error, up to ~38 hours). Two window slots alternate: a slot is cleared by the
+ * first writer that enters a new window, and percentiles are read from the current and the previous
+ * slot, i.e. over the last one to two windows. Recording is a single atomic increment on the common
+ * path and reading allocates nothing; a sample racing with a slot reset may be lost, which is
+ * acceptable for load-balancing statistics.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 37;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final long windowNanos;
+    private final AtomicLongArray[] slots = {new AtomicLongArray(BUCKET_COUNT), new AtomicLongArray(BUCKET_COUNT)};
+    private final AtomicLongArray slotWindows = new AtomicLongArray(2);
+
+    /**
+     * @param windowNanos Length of one window slot.
+     */
+    public LatencyHistogram(long windowNanos) {
+        this.windowNanos = Math.max(windowNanos, 1L);
+        long window = currentWindow(System.nanoTime());
+        slotWindows.set(0, window);
+        slotWindows.set(1, window - 1);
+    }
+
+    public void record(long latencyNanos) {
+        long window = currentWindow(System.nanoTime());
+        int slot = (int) (window & 1);
+        long slotWindow = slotWindows.get(slot);
+        if (slotWindow != window && slotWindows.compareAndSet(slot, slotWindow, window)) {
+            AtomicLongArray counts = slots[slot];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts.set(i, 0L);
+            }
+        }
+        slots[slot].incrementAndGet(bucketOf(latencyNanos / 1_000L));
+    }
+
+    /**
+     * @param quantile The quantile in [0, 1], e.g. 0.99.
+     * @return The latency at that quantile in nanoseconds (bucket upper bound), or 0 without samples in the window.
+     */
+    public long getPercentileNanos(double quantile) {
+        long window = currentWindow(System.nanoTime());
+        AtomicLongArray current = slotFor(window);
+        AtomicLongArray previous = slotFor(window - 1);
+
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += countAt(current, previous, i);
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(Math.max(quantile, 0.0), 1.0) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += countAt(current, previous, i);
+            if (seen >= rank) {
+                return upperBoundMicros(i) * 1_000L;
+            }
+        }
+        return upperBoundMicros(BUCKET_COUNT - 1) * 1_000L;
+    }
+
+    /**
+     * @return The number of samples in the current and previous window.
+     */
+    public long getCount() {
+        long window = currentWindow(System.nanoTime());
+        AtomicLongArray current = slotFor(window);
+        AtomicLongArray previous = slotFor(window - 1);
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += countAt(current, previous, i);
+        }
+        return total;
+    }
+
+    private long currentWindow(long nowNanos) {
+        return nowNanos / windowNanos;
+    }
+
+    private AtomicLongArray slotFor(long window) {
+        int slot = (int) (window & 1);
+        return slotWindows.get(slot) == window ? slots[slot] : null;
+    }
+
+    private static long countAt(AtomicLongArray current, AtomicLongArray previous, int bucket) {
+        long count = 0;
+        if (current != null) {
+            count += current.get(bucket);
+        }
+        if (previous != null) {
+            count += previous.get(bucket);
+        }
+        return count;
+    }
+
+    static int bucketOf(long micros) {
+        long value = Math.min(Math.max(micros, 0L), MAX_MICROS);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak-sensitive, time-decayed moving average of request latency (the "peak EWMA" used by
+ * Finagle and Linkerd). A sample above the current value replaces it immediately; lower samples are
+ * blended in with a weight that depends on how much time has passed since the previous sample, so the
+ * average reacts to a degrading instance at once and recovers over roughly the decay window.
+ * <p>
+ * Lock-free: the value lives in an {@link AtomicLong} as raw double bits and is updated by CAS, and
+ * each sample claims the interval since the previous one by swapping the timestamp. Reads never write.
+ */
+public final class PeakEwma {
+    private final double decayNanos;
+    private final AtomicLong valueBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private final AtomicLong lastSampleNanos;
+
+    /**
+     * @param decayNanos The time constant of the exponential decay.
+     */
+    public PeakEwma(long decayNanos) {
+        this.decayNanos = Math.max(decayNanos, 1L);
+        this.lastSampleNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Records one latency sample.
+     *
+     * @param latencyNanos The measured latency, from {@link System#nanoTime()} deltas.
+     */
+    public void observe(long latencyNanos) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(now - lastSampleNanos.getAndSet(now), 0L);
+        double weight = Math.exp(-elapsed / decayNanos);
+        double sample = Math.max(latencyNanos, 0L);
+
+        long currentBits;
+        long nextBits;
+        do {
+            currentBits = valueBits.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double next = sample > current ? sample : current * weight + sample * (1.0 - weight);
+            nextBits = Double.doubleToRawLongBits(next);
+        } while (!valueBits.compareAndSet(currentBits, nextBits));
+    }
+
+    /**
+     * @return The average in nanoseconds, decayed towards zero for the time since the last sample so
+     *         that an instance that stopped receiving traffic is eventually probed again.
+     */
+    public double get(long nowNanos) {
+        double value = Double.longBitsToDouble(valueBits.get());
+        if (value == 0.0) {
+            return 0.0;
+        }
+        long idle = Math.max(nowNanos - lastSampleNanos.get(), 0L);
+        return value * Math.exp(-idle / decayNanos);
+    }
+}
@@ -1,20 +1,56 @@
 package com.petrichor.loadbalancer.load_balancer.model;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ServerInfo {
+    private static final long DEFAULT_EWMA_DECAY_NANOS = 10_000_000_000L;
+    private static final long DEFAULT_HISTOGRAM_WINDOW_NANOS = 30_000_000_000L;
+
     private final String url;
     private final AtomicInteger activeConnections;
-    private final AtomicReference<Double> avgResponseTime;
     private final AtomicBoolean healthy;
+    // Bumped whenever the server's eligibility for traffic changes; see InstanceView
+    private final AtomicLong stateVersion = new AtomicLong();
+    // Relative capacity from the instance's discovery metadata (1 = default)
+    private volatile int weight = 1;
+    // When the server last became eligible for traffic; drives the slow-start ramp
+    private volatile long eligibleSinceNanos = System.nanoTime();
+
+    // Call statistics, all fed from System.nanoTime() measurements by recordCall
+    private final PeakEwma peakLatency;
+    private final DecayingEwma avgLatencyNanos;
+    private final DecayingEwma errorRate;
+    private final LatencyHistogram latencyHistogram;
+    private final LongAdder totalCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+
+    // Outlier detection state; see OutlierDetectionService
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder intervalCalls = new LongAdder();
+    private final LongAdder intervalFailures = new LongAdder();
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+    private int ejectionCount; // guarded by the outlier detector
 
     public ServerInfo(String url) {
+        this(url, DEFAULT_EWMA_DECAY_NANOS, DEFAULT_HISTOGRAM_WINDOW_NANOS);
+    }
+
+    /**
+     * @param ewmaDecayNanos Time constant of the latency and error-rate moving averages.
+     * @param histogramWindowNanos Window of the latency histogram; percentiles cover the last one to two windows.
+     */
+    public ServerInfo(String url, long ewmaDecayNanos, long histogramWindowNanos) {
         this.url = url;
         this.activeConnections = new AtomicInteger(0);
-        this.avgResponseTime = new AtomicReference<>(0.0);
         this.healthy = new AtomicBoolean(true);
+        this.peakLatency = new PeakEwma(ewmaDecayNanos);
+        this.avgLatencyNanos = new DecayingEwma(ewmaDecayNanos);
+        this.errorRate = new DecayingEwma(ewmaDecayNanos);
+        this.latencyHistogram = new LatencyHistogram(histogramWindowNanos);
     }
 
     public String getUrl() {
@@ -33,12 +69,147 @@ public class ServerInfo {
         activeConnections.decrementAndGet();
     }
 
+    /**
+     * Records the outcome of one proxied call to this server.
+     *
+     * @param latencyNanos The call latency, from {@link System#nanoTime()} deltas.
+     * @param failed Whether the call failed (transport error, timeout or 5xx).
+     */
+    public void recordCall(long latencyNanos, boolean failed) {
+        peakLatency.observe(latencyNanos);
+        avgLatencyNanos.observe(latencyNanos);
+        latencyHistogram.record(latencyNanos);
+        errorRate.observe(failed ? 1.0 : 0.0);
+        totalCalls.increment();
+        intervalCalls.increment();
+        if (failed) {
+            failedCalls.increment();
+            intervalFailures.increment();
+            consecutiveFailures.incrementAndGet();
+        } else if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * @return The time-decayed average response time in milliseconds.
+     */
     public double getAvgResponseTime() {
-        return avgResponseTime.get();
+        return avgLatencyNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @return The peak-EWMA latency in nanoseconds as of {@code nowNanos} ({@link System#nanoTime()}).
+     */
+    public double getPeakEwmaLatencyNanos(long nowNanos) {
+        return peakLatency.get(nowNanos);
+    }
+
+    /**
+     * @param quantile E.g. 0.5, 0.99 or 0.999.
+     * @return The recent latency at that quantile in nanoseconds, or 0 if there were no recent calls.
+     */
+    public long getLatencyPercentileNanos(double quantile) {
+        return latencyHistogram.getPercentileNanos(quantile);
+    }
+
+    /**
+     * @return The number of calls the latency percentiles are currently computed from.
+     */
+    public long getLatencySampleCount() {
+        return latencyHistogram.getCount();
+    }
+
+    /**
+     * @return The time-decayed fraction of failed calls, between 0 and 1.
+     */
+    public double getErrorRate() {
+        return errorRate.get();
+    }
+
+    public long getTotalCalls() {
+        return totalCalls.sum();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return The calls (resp. failed calls) recorded since the previous drain; the counter is reset.
+     *         Only the outlier detector's interval sweep drains these.
+     */
+    public long drainIntervalCalls() {
+        return intervalCalls.sumThenReset();
     }
 
-    public void setAvgResponseTime(double newTime) {
-        avgResponseTime.set(newTime);
+    public long drainIntervalFailures() {
+        return intervalFailures.sumThenReset();
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    public long getEjectedUntilNanos() {
+        return ejectedUntilNanos;
+    }
+
+    public int getEjectionCount() {
+        return ejectionCount;
+    }
+
+    public void setEjectionCount(int ejectionCount) {
+        this.ejectionCount = ejectionCount;
+    }
+
+    /**
+     * Takes the server out of rotation until {@code untilNanos} ({@link System#nanoTime()}).
+     */
+    public void eject(long untilNanos) {
+        ejectedUntilNanos = untilNanos;
+        consecutiveFailures.set(0);
+        if (!ejected) {
+            ejected = true;
+            stateVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns an ejected server to rotation; it goes through slow start like a recovered server.
+     */
+    public void uneject() {
+        if (ejected) {
+            ejected = false;
+            eligibleSinceNanos = System.nanoTime();
+            stateVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Whether the server may receive traffic: healthy according to health checks and not ejected as an outlier.
+     */
+    public boolean isEligible() {
+        return healthy.get() && !ejected;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return {@code true} if the weight changed.
+     */
+    public boolean setWeight(int weight) {
+        if (this.weight == weight) {
+            return false;
+        }
+        this.weight = weight;
+        return true;
     }
 
     public boolean isHealthy() {
@@ -46,6 +217,25 @@ public class ServerInfo {
     }
 
     public void setHealthy(boolean isHealthy) {
-        healthy.set(isHealthy);
+        if (healthy.getAndSet(isHealthy) != isHealthy) {
+            if (isHealthy) {
+                eligibleSinceNanos = System.nanoTime();
+            }
+            stateVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at which the server was created or last became healthy again.
+     */
+    public long getEligibleSinceNanos() {
+        return eligibleSinceNanos;
+    }
+
+    /**
+     * @return A counter that changes whenever this server becomes eligible or ineligible for traffic.
+     */
+    public long getStateVersion() {
+        return stateVersion.get();
     }
 }
@@ -0,0 +1,62 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket filled by traffic rather than by time: every request {@link #deposit() deposits} a
+ * fraction of a token and every extra request (a hedge or a retry) {@link #tryWithdraw() withdraws} a
+ * whole one, so extra requests stay below that fraction of regular traffic over time. The bucket holds
+ * at most {@code capacity} tokens, which is the largest burst of extra requests it allows.
+ * <p>
+ * Lock-free: the balance lives in an {@link AtomicLong} in millionths of a token and is updated by CAS.
+ */
+public final class TokenBudget {
+    private static final long UNIT = 1_000_000L;
+
+    private final long depositUnits;
+    private final long capacityUnits;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio    Tokens deposited per request, e.g. 0.05 to allow extra requests for 5% of traffic.
+     * @param capacity Maximum number of tokens held; the bucket starts full.
+     */
+    public TokenBudget(double ratio, int capacity) {
+        this.depositUnits = Math.max(Math.round(Math.max(ratio, 0.0) * UNIT), 0L);
+        this.capacityUnits = Math.max(capacity, 1) * UNIT;
+        this.balance = new AtomicLong(capacityUnits);
+    }
+
+    public void deposit() {
+        long current;
+        long next;
+        do {
+            current = balance.get();
+            if (current >= capacityUnits) {
+                return;
+            }
+            next = Math.min(current + depositUnits, capacityUnits);
+        } while (!balance.compareAndSet(current, next));
+    }
+
+    /**
+     * @return Whether a whole token was available and has been taken.
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    /**
+     * @return The current balance in tokens.
+     */
+    public double getBalance() {
+        return (double) balance.get() / UNIT;
+    }
+}
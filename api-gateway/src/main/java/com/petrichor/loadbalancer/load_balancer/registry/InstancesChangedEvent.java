@@ -0,0 +1,25 @@
+package com.petrichor.loadbalancer.load_balancer.registry;
+
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
+
+/**
+ * Published by {@link ServiceInstanceRegistry} when the set of a service's instances changes,
+ * including when the service is first seen.
+ */
+public class InstancesChangedEvent {
+    private final String serviceName;
+    private final InstanceView instances;
+
+    public InstancesChangedEvent(String serviceName, InstanceView instances) {
+        this.serviceName = serviceName;
+        this.instances = instances;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public InstanceView getInstances() {
+        return instances;
+    }
+}
@@ -1,15 +1,37 @@
 package com.petrichor.loadbalancer.load_balancer.registry;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Component;
 
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
 import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Component
 public class ServerInfoRegistry {
+    private static final double[] PUBLISHED_QUANTILES = {0.5, 0.99, 0.999};
+
     private final Map<String, ServerInfo> serverInfoMap = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> serverMeters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long ewmaDecayNanos;
+    private final long latencyWindowNanos;
+
+    public ServerInfoRegistry(LoadBalancerConfig config, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.ewmaDecayNanos = TimeUnit.MILLISECONDS.toNanos(config.getEwmaDecayMs());
+        this.latencyWindowNanos = TimeUnit.MILLISECONDS.toNanos(config.getLatencyWindowMs());
+    }
 
     /**
      * Retrieves an existing ServerInfo for the given URL or creates a new one if not found.
@@ -20,7 +42,15 @@ public class ServerInfoRegistry {
      * @return The existing or newly created ServerInfo instance.
      */
     public ServerInfo getOrCreateServerInfo(String serverUrl) {
-        return serverInfoMap.computeIfAbsent(serverUrl, ServerInfo::new);
+        ServerInfo serverInfo = serverInfoMap.get(serverUrl);
+        if (serverInfo != null) {
+            return serverInfo;
+        }
+        return serverInfoMap.computeIfAbsent(serverUrl, url -> {
+            ServerInfo created = new ServerInfo(url, ewmaDecayNanos, latencyWindowNanos);
+            serverMeters.put(url, registerMeters(created));
+            return created;
+        });
     }
 
     /**
@@ -33,6 +63,26 @@ public class ServerInfoRegistry {
         return serverInfoMap;
     }
 
+    /**
+     * Drops the ServerInfo of every server that is not in the given set, e.g. instances that have
+     * deregistered from discovery. Requests still holding a dropped ServerInfo finish unaffected.
+     *
+     * @param liveServerUrls The URLs of all currently registered server instances.
+     * @return The number of servers removed.
+     */
+    public int retainOnly(Set<String> liveServerUrls) {
+        int removed = 0;
+        for (Iterator<String> urls = serverInfoMap.keySet().iterator(); urls.hasNext(); ) {
+            String url = urls.next();
+            if (!liveServerUrls.contains(url)) {
+                urls.remove();
+                removeMeters(url);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
     /**
      * Can be used by a health checking mechanism to update the health status of a server.
      * @param serverUrl The URL of the server.
@@ -42,4 +92,36 @@ public class ServerInfoRegistry {
         ServerInfo serverInfo = getOrCreateServerInfo(serverUrl);
         serverInfo.setHealthy(isHealthy);
     }
-} 
\ No newline at end of file
+
+    private List<Meter> registerMeters(ServerInfo serverInfo) {
+        String url = serverInfo.getUrl();
+        List<Meter> meters = new ArrayList<>(PUBLISHED_QUANTILES.length + 3);
+        for (double quantile : PUBLISHED_QUANTILES) {
+            meters.add(Gauge.builder("gateway.upstream.latency", serverInfo, s -> s.getLatencyPercentileNanos(quantile) / 1.0e9)
+                    .tag("instance", url)
+                    .tag("quantile", Double.toString(quantile))
+                    .baseUnit("seconds")
+                    .register(meterRegistry));
+        }
+        meters.add(Gauge.builder("gateway.upstream.latency.ewma", serverInfo, s -> s.getAvgResponseTime() / 1000.0)
+                .tag("instance", url)
+                .baseUnit("seconds")
+                .register(meterRegistry));
+        meters.add(Gauge.builder("gateway.upstream.error.rate", serverInfo, ServerInfo::getErrorRate)
+                .tag("instance", url)
+                .register(meterRegistry));
+        meters.add(Gauge.builder("gateway.upstream.active.connections", serverInfo, ServerInfo::getActiveConnections)
+                .tag("instance", url)
+                .register(meterRegistry));
+        return meters;
+    }
+
+    private void removeMeters(String url) {
+        List<Meter> meters = serverMeters.remove(url);
+        if (meters != null) {
+            for (Meter meter : meters) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+}
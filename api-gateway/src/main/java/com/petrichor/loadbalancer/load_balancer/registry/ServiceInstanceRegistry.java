@@ -0,0 +1,201 @@
+package com.petrichor.loadbalancer.load_balancer.registry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-service snapshots of the known instances, kept as immutable {@link InstanceView}s over arrays of {@link ServerInfo}.
+ * <p>
+ * Snapshots are rebuilt when the Eureka client reports a registry refresh ({@link HeartbeatEvent})
+ * and once at startup, so routing reads a ready array instead of querying discovery and resolving
+ * {@code ServerInfo}s on every request. A service seen for the first time between refreshes is loaded
+ * on demand. Each full refresh also evicts the {@code ServerInfo}s of instances that have left.
+ * Between refreshes a view is rebuilt only when some server's health flips, and a refresh that finds
+ * the same instances with the same weights keeps the existing view (and any selector state built on it).
+ * <p>
+ * Instance weights are read from the Eureka metadata key {@code LOADBALANCER_WEIGHT_METADATA_KEY}
+ * ({@code weight} by default, e.g. {@code eureka.instance.metadata-map.weight=3}) and clamped to
+ * 1..{@value #MAX_WEIGHT}; instances without one weigh 1.
+ * <p>
+ * Changes to a service's set of instances are published as {@link InstancesChangedEvent}s.
+ */
+@Component
+public class ServiceInstanceRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceInstanceRegistry.class);
+
+    static final int MAX_WEIGHT = 100;
+    private static final Comparator<ServerInfo> BY_URL = Comparator.comparing(ServerInfo::getUrl);
+
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final ServerInfoRegistry serverInfoRegistry;
+    private final String weightMetadataKey;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, InstanceView> snapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    public ServiceInstanceRegistry(ReactiveDiscoveryClient discoveryClient, ServerInfoRegistry serverInfoRegistry, LoadBalancerConfig config,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.discoveryClient = discoveryClient;
+        this.serverInfoRegistry = serverInfoRegistry;
+        this.weightMetadataKey = config.getWeightMetadataKey();
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return The current view of the service's instances, or {@code null} if the service is not in the snapshot yet.
+     */
+    public InstanceView getSnapshot(String serviceName) {
+        InstanceView view = snapshots.get(serviceName);
+        if (view == null) {
+            return null;
+        }
+        InstanceView current = view.refreshed();
+        if (current != view) {
+            snapshots.replace(serviceName, view, current);
+        }
+        return current;
+    }
+
+    /**
+     * The snapshot for the service, loading it from discovery if the service has not been seen yet.
+     */
+    public Mono<InstanceView> getInstances(String serviceName) {
+        InstanceView snapshot = getSnapshot(serviceName);
+        if (snapshot != null) {
+            return Mono.just(snapshot);
+        }
+        return loadService(serviceName)
+                .doOnNext(view -> {
+                    if (!view.isEmpty() && snapshots.putIfAbsent(serviceName, view) == null) {
+                        eventPublisher.publishEvent(new InstancesChangedEvent(serviceName, view));
+                    }
+                });
+    }
+
+    /**
+     * @return A read-only view of all current service snapshots.
+     */
+    public Map<String, InstanceView> getSnapshots() {
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @EventListener(HeartbeatEvent.class)
+    public void onRegistryRefreshed() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds every service snapshot from discovery. Overlapping triggers are dropped, since the
+     * refresh already in progress reads the same local Eureka registry.
+     */
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        discoveryClient.getServices()
+                .flatMap(serviceName -> loadService(serviceName).map(instances -> Map.entry(serviceName, instances)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .doFinally(signalType -> refreshing.set(false))
+                .subscribe(
+                        this::applyRefresh,
+                        error -> logger.warn("[ServiceInstanceRegistry] Failed to refresh instance snapshots: {}", error.getMessage()));
+    }
+
+    private void applyRefresh(Map<String, InstanceView> refreshed) {
+        Set<String> liveUrls = new HashSet<>();
+        for (Map.Entry<String, InstanceView> entry : refreshed.entrySet()) {
+            InstanceView view = entry.getValue();
+            for (ServerInfo instance : view.members()) {
+                liveUrls.add(instance.getUrl());
+            }
+            InstanceView previous = snapshots.put(entry.getKey(), view);
+            if (previous != view && (previous == null || previous.members().length != view.members().length)) {
+                logger.info("[ServiceInstanceRegistry] Service {} now has {} instance(s)", entry.getKey(), view.members().length);
+            }
+            if (previous == null || !Arrays.equals(previous.members(), view.members())) {
+                eventPublisher.publishEvent(new InstancesChangedEvent(entry.getKey(), view));
+            }
+        }
+        snapshots.keySet().retainAll(refreshed.keySet());
+
+        int evicted = serverInfoRegistry.retainOnly(liveUrls);
+        if (evicted > 0) {
+            logger.info("[ServiceInstanceRegistry] Evicted {} server(s) no longer registered in discovery", evicted);
+        }
+    }
+
+    private Mono<InstanceView> loadService(String serviceName) {
+        return discoveryClient.getInstances(serviceName)
+                .collectList()
+                .map(serviceInstances -> toView(serviceName, serviceInstances))
+                .onErrorResume(error -> {
+                    logger.warn("[ServiceInstanceRegistry] Failed to load instances of {}: {}", serviceName, error.getMessage());
+                    InstanceView current = snapshots.get(serviceName);
+                    return Mono.just(current != null ? current : InstanceView.EMPTY);
+                });
+    }
+
+    private InstanceView toView(String serviceName, List<ServiceInstance> serviceInstances) {
+        if (serviceInstances.isEmpty()) {
+            return InstanceView.EMPTY;
+        }
+        ServerInfo[] instances = new ServerInfo[serviceInstances.size()];
+        boolean weightsChanged = false;
+        for (int i = 0; i < instances.length; i++) {
+            ServiceInstance serviceInstance = serviceInstances.get(i);
+            ServerInfo server = serverInfoRegistry.getOrCreateServerInfo(serviceInstance.getUri().toString());
+            weightsChanged |= server.setWeight(weightOf(serviceInstance));
+            instances[i] = server;
+        }
+        // A stable order keeps equal memberships comparable across refreshes
+        Arrays.sort(instances, BY_URL);
+
+        InstanceView current = snapshots.get(serviceName);
+        if (!weightsChanged && current != null && Arrays.equals(current.members(), instances)) {
+            return current.refreshed();
+        }
+        return InstanceView.of(instances);
+    }
+
+    private int weightOf(ServiceInstance serviceInstance) {
+        Map<String, String> metadata = serviceInstance.getMetadata();
+        String rawWeight = metadata != null ? metadata.get(weightMetadataKey) : null;
+        if (rawWeight == null || rawWeight.isBlank()) {
+            return 1;
+        }
+        try {
+            return Math.min(Math.max(Integer.parseInt(rawWeight.trim()), 1), MAX_WEIGHT);
+        } catch (NumberFormatException e) {
+            logger.warn("[ServiceInstanceRegistry] Ignoring invalid weight '{}' of instance {}", rawWeight, serviceInstance.getUri());
+            return 1;
+        }
+    }
+}
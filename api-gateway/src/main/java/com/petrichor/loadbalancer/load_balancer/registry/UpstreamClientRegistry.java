@@ -0,0 +1,173 @@
+package com.petrichor.loadbalancer.load_balancer.registry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.petrichor.loadbalancer.load_balancer.config.NettyTransportConfig;
+import com.petrichor.loadbalancer.load_balancer.config.WebClientConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One {@link WebClient} per upstream service, each on its own named Reactor Netty connection pool
+ * ({@code upstream-<service>}), so one slow service exhausting its pool cannot starve the others.
+ * Pool limits, pending-acquire queue, idle/lifetime eviction and timeouts come from {@code UPSTREAM_*}.
+ * Reactor Netty applies the connection limit and the pending-acquire queue per remote address, so
+ * {@code UPSTREAM_MAX_CONNECTIONS} caps the connections to each instance of a service, not to the service;
+ * pool metrics are published as {@code reactor.netty.connection.provider.*} tagged with the pool name.
+ * <p>
+ * Services listed in {@code UPSTREAM_H2C_SERVICES} are spoken to over cleartext HTTP/2 with prior
+ * knowledge, multiplexing concurrent requests over a few connections. When an instance appears in
+ * discovery, {@code UPSTREAM_PREWARM_CONNECTIONS} concurrent requests to {@code UPSTREAM_PREWARM_PATH}
+ * open connections to it ahead of the first real request. The clients run on the event loops and transport
+ * set up by {@link NettyTransportConfig}.
+ */
+@Component
+public class UpstreamClientRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamClientRegistry.class);
+
+    private final WebClientConfig config;
+    private final NettyTransportConfig transport;
+    private final WebClient.Builder webClientBuilder;
+    private final Map<String, Integer> serviceMaxConnections;
+    private final Set<String> h2cServices;
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+    // Service -> URLs of the instances already pre-warmed
+    private final Map<String, Set<String>> warmedInstances = new ConcurrentHashMap<>();
+
+    public UpstreamClientRegistry(WebClientConfig config, NettyTransportConfig transport, WebClient.Builder webClientBuilder) {
+        this.config = config;
+        this.transport = transport;
+        this.webClientBuilder = webClientBuilder;
+        this.serviceMaxConnections = parseServiceMaxConnections(config.getServiceMaxConnections());
+        this.h2cServices = parseServices(config.getH2cServices());
+    }
+
+    /**
+     * @return The client for calls to the service's instances.
+     */
+    public WebClient forService(String serviceName) {
+        return upstreams.computeIfAbsent(serviceName, this::newUpstream).webClient;
+    }
+
+    @EventListener(InstancesChangedEvent.class)
+    public void onInstancesChanged(InstancesChangedEvent event) {
+        int connections = config.getPrewarmConnections();
+        if (connections <= 0) {
+            return;
+        }
+        String serviceName = event.getServiceName();
+        Set<String> current = new HashSet<>();
+        for (ServerInfo server : event.getInstances().members()) {
+            current.add(server.getUrl());
+        }
+        Set<String> warmed = warmedInstances.put(serviceName, current);
+        WebClient webClient = forService(serviceName);
+        for (String url : current) {
+            if (warmed == null || !warmed.contains(url)) {
+                prewarm(webClient, serviceName, url, connections);
+            }
+        }
+    }
+
+    // Concurrent requests each take a connection of their own; they go back to the pool once answered
+    private void prewarm(WebClient webClient, String serviceName, String url, int connections) {
+        URI uri = URI.create(url + config.getPrewarmPath());
+        Flux.range(0, connections)
+                .flatMap(i -> webClient.get().uri(uri).retrieve().toBodilessEntity(), connections)
+                .onErrorResume(error -> Flux.empty()) // The instance may not be ready yet; real traffic will connect
+                .count()
+                .subscribe(count -> logger.debug("[UpstreamClientRegistry] Pre-warmed {} connection(s) to {} of {}", count, url, serviceName));
+    }
+
+    private Upstream newUpstream(String serviceName) {
+        String key = serviceName.toUpperCase(Locale.ROOT);
+        int maxConnections = serviceMaxConnections.getOrDefault(key, config.getMaxConnections());
+        boolean h2c = h2cServices.contains("*") || h2cServices.contains(key);
+
+        ConnectionProvider provider = ConnectionProvider.builder("upstream-" + serviceName.toLowerCase(Locale.ROOT))
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(config.getPendingAcquireMax())
+                .pendingAcquireTimeout(Duration.ofMillis(config.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(config.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(config.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(config.getEvictIntervalMs()))
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .runOn(transport.getClientLoops(), transport.isPreferNative())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeoutMs())
+                .protocol(h2c ? HttpProtocol.H2C : HttpProtocol.HTTP11);
+        if (config.getResponseTimeoutMs() > 0) {
+            httpClient = httpClient.responseTimeout(Duration.ofMillis(config.getResponseTimeoutMs()));
+        }
+
+        logger.info("[UpstreamClientRegistry] Created connection pool for {} (max connections per instance: {}, protocol: {})",
+                serviceName, maxConnections, h2c ? "h2c" : "HTTP/1.1");
+        WebClient webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new Upstream(provider, webClient);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        upstreams.values().forEach(upstream -> upstream.provider.disposeLater().subscribe());
+    }
+
+    private static Map<String, Integer> parseServiceMaxConnections(String value) {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String rawEntry : value.split(",")) {
+            String entry = rawEntry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid UPSTREAM_SERVICE_MAX_CONNECTIONS entry '" + entry + "', expected <SERVICE>=<max connections>");
+            }
+            parsed.put(entry.substring(0, separator).trim().toUpperCase(Locale.ROOT), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private static Set<String> parseServices(String value) {
+        Set<String> parsed = new HashSet<>();
+        for (String service : value.split(",")) {
+            if (!service.isBlank()) {
+                parsed.add(service.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return parsed;
+    }
+
+    private static final class Upstream {
+        final ConnectionProvider provider;
+        final WebClient webClient;
+
+        Upstream(ConnectionProvider provider, WebClient webClient) {
+            this.provider = provider;
+            this.webClient = webClient;
+        }
+    }
+}
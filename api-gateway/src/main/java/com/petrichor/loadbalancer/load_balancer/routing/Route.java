@@ -0,0 +1,136 @@
+package com.petrichor.loadbalancer.load_balancer.routing;
+
+import java.time.Duration;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.github.resilience4j.retry.RetryConfig;
+import reactor.core.publisher.Flux;
+
+/**
+ * A compiled, immutable route: where matching requests go, how their path is rewritten and which
+ * policies apply. The Resilience4j operators are built once per route rather than looked up per request.
+ */
+public final class Route {
+    private final String id;
+    private final String pattern;
+    private final String serviceId;
+    private final HttpMethod[] methods;
+    private final int stripPrefix;
+    private final String addPrefix;
+    private final boolean authRequired;
+    private final boolean cacheEnabled;
+    private final Duration cacheTtl;
+    private final boolean hedge;
+    private final CircuitBreakerOperator<ResponseEntity<Flux<DataBuffer>>> circuitBreaker;
+    private final RateLimiterOperator<ResponseEntity<Flux<DataBuffer>>> rateLimiter;
+    private final RetryConfig retryConfig;
+
+    /**
+     * @param methods  Allowed methods; empty allows all.
+     * @param cacheTtl Cap on the cache TTL of the route's responses, or {@code null} for the global TTL.
+     * @param hedge    Whether slow idempotent requests of the route may be hedged.
+     */
+    public Route(String id, String pattern, String serviceId, HttpMethod[] methods, int stripPrefix, String addPrefix,
+                 boolean authRequired, boolean cacheEnabled, Duration cacheTtl, boolean hedge,
+                 CircuitBreakerOperator<ResponseEntity<Flux<DataBuffer>>> circuitBreaker,
+                 RateLimiterOperator<ResponseEntity<Flux<DataBuffer>>> rateLimiter,
+                 RetryConfig retryConfig) {
+        this.id = id;
+        this.pattern = pattern;
+        this.serviceId = serviceId;
+        this.methods = methods;
+        this.stripPrefix = stripPrefix;
+        this.addPrefix = addPrefix;
+        this.authRequired = authRequired;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheTtl = cacheTtl;
+        this.hedge = hedge;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.retryConfig = retryConfig;
+    }
+
+    public boolean allows(HttpMethod method) {
+        if (methods.length == 0) {
+            return true;
+        }
+        for (HttpMethod allowed : methods) {
+            if (allowed.equals(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether the route forwards to a service, rather than describing an endpoint of the gateway itself.
+     */
+    public boolean isProxied() {
+        return serviceId != null;
+    }
+
+    /**
+     * Rewrites a request path matched by this route into the path within the target service.
+     *
+     * @param path The raw (still percent-encoded) request path.
+     */
+    public String rewritePath(String path) {
+        int start = 0;
+        for (int i = 0; i < stripPrefix && start < path.length(); i++) {
+            int next = path.indexOf('/', start + 1);
+            start = next < 0 ? path.length() : next;
+        }
+        String remainder = start < path.length() ? path.substring(start) : "/";
+        return addPrefix.isEmpty() ? remainder : addPrefix + remainder;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public boolean isAuthRequired() {
+        return authRequired;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    public CircuitBreakerOperator<ResponseEntity<Flux<DataBuffer>>> getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RateLimiterOperator<ResponseEntity<Flux<DataBuffer>>> getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public RetryConfig getRetryConfig() {
+        return retryConfig;
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + pattern + " -> " + (serviceId != null ? serviceId : "gateway") + ")";
+    }
+}
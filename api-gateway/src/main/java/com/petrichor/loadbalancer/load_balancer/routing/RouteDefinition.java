@@ -0,0 +1,135 @@
+package com.petrichor.loadbalancer.load_balancer.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of {@code gateway.routes} as declared in configuration; compiled into a {@link Route}.
+ */
+public class RouteDefinition {
+    private String id;
+    // Path pattern: literal segments, '*' or '{name}' for any one segment, and a trailing '/**' for any remainder
+    private String path;
+    // Eureka service the route forwards to; routes without one only describe endpoints the gateway serves itself
+    private String service;
+    // Allowed methods; empty allows all
+    private List<String> methods = new ArrayList<>();
+    // Leading path segments removed before forwarding, e.g. 1 turns /features/hello into /hello...
+    private int stripPrefix = 1;
+    // ...and a prefix put in front of what remains
+    private String addPrefix = "";
+    private boolean authRequired = true;
+    private boolean cacheEnabled = true;
+    // Upper bound on how long GET responses of this route are cached; 0 keeps LOADBALANCER_CACHE_TTL_SECONDS
+    private long cacheTtlSeconds;
+    // Hedge slow requests made with one of HEDGING_METHODS; see HedgingService
+    private boolean hedge;
+    // Resilience4j instance names; the circuit breaker and rate limiter default to the service's
+    private String circuitBreaker;
+    private String rateLimiter;
+    private String retry = "load-balancer-retry";
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<String> methods) {
+        this.methods = methods;
+    }
+
+    public int getStripPrefix() {
+        return stripPrefix;
+    }
+
+    public void setStripPrefix(int stripPrefix) {
+        this.stripPrefix = stripPrefix;
+    }
+
+    public String getAddPrefix() {
+        return addPrefix;
+    }
+
+    public void setAddPrefix(String addPrefix) {
+        this.addPrefix = addPrefix;
+    }
+
+    public boolean isAuthRequired() {
+        return authRequired;
+    }
+
+    public void setAuthRequired(boolean authRequired) {
+        this.authRequired = authRequired;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    public void setHedge(boolean hedge) {
+        this.hedge = hedge;
+    }
+
+    public String getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(String circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public void setRateLimiter(String rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public String getRetry() {
+        return retry;
+    }
+
+    public void setRetry(String retry) {
+        this.retry = retry;
+    }
+}
@@ -0,0 +1,143 @@
+package com.petrichor.loadbalancer.load_balancer.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * The gateway's route table, declared under {@code gateway.routes} and compiled into a {@link RouteTrie}.
+ * When the environment is refreshed (e.g. {@code POST /actuator/refresh} after editing the file named by
+ * {@code GATEWAY_ROUTES_FILE}) the routes are recompiled and swapped in atomically; requests in flight
+ * keep the route they matched. A table that fails to compile is logged and the current one kept.
+ */
+@Component
+public class RouteTable {
+    private static final Logger logger = LoggerFactory.getLogger(RouteTable.class);
+    private static final String ROUTES_PROPERTY = "gateway.routes";
+
+    private final Environment environment;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final RetryRegistry retryRegistry;
+    private volatile RouteTrie trie;
+
+    public RouteTable(Environment environment, CircuitBreakerRegistry circuitBreakerRegistry,
+                      RateLimiterRegistry rateLimiterRegistry, RetryRegistry retryRegistry) {
+        this.environment = environment;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.retryRegistry = retryRegistry;
+        this.trie = compile(); // A broken table at startup fails the context
+    }
+
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(ROUTES_PROPERTY))) {
+            return;
+        }
+        try {
+            trie = compile();
+        } catch (RuntimeException e) {
+            logger.error("[RouteTable] Keeping the current routes; the reloaded route table is invalid: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return The route for the request.
+     * @throws ResponseStatusException 404 if no route matches the path, 405 if none allows the method.
+     */
+    public Route match(String path, HttpMethod method) {
+        RouteTrie current = trie;
+        Route route = current.match(path, method);
+        if (route != null) {
+            return route;
+        }
+        if (current.match(path, null) != null) {
+            throw new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED, "Method " + method + " not allowed for " + path);
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No route for " + path);
+    }
+
+    /**
+     * @return Whether the request may pass without authentication; requests matching no route may not.
+     */
+    public boolean isPublic(String path, HttpMethod method) {
+        Route route = trie.match(path, method);
+        return route != null && !route.isAuthRequired();
+    }
+
+    private RouteTrie compile() {
+        List<RouteDefinition> definitions = Binder.get(environment)
+                .bind(ROUTES_PROPERTY, Bindable.listOf(RouteDefinition.class))
+                .orElse(List.of());
+        List<Route> routes = new ArrayList<>(definitions.size());
+        Set<String> ids = new HashSet<>();
+        for (RouteDefinition definition : definitions) {
+            Route route = compile(definition);
+            if (!ids.add(route.getId())) {
+                throw new IllegalArgumentException("Duplicate route id '" + route.getId() + "'");
+            }
+            routes.add(route);
+        }
+        RouteTrie compiled = RouteTrie.compile(routes);
+        logger.info("[RouteTable] Compiled {} routes: {}", routes.size(), routes);
+        return compiled;
+    }
+
+    private Route compile(RouteDefinition definition) {
+        String id = definition.getId() != null ? definition.getId() : definition.getPath();
+        String serviceId = definition.getService() == null || definition.getService().isBlank()
+                ? null
+                : definition.getService().trim().toUpperCase(Locale.ROOT);
+        HttpMethod[] methods = definition.getMethods().stream()
+                .map(method -> HttpMethod.valueOf(method.trim().toUpperCase(Locale.ROOT)))
+                .toArray(HttpMethod[]::new);
+        if (definition.getStripPrefix() < 0) {
+            throw new IllegalArgumentException("Route " + id + " has a negative strip-prefix");
+        }
+        String addPrefix = definition.getAddPrefix() == null ? "" : definition.getAddPrefix().trim();
+        if (addPrefix.endsWith("/")) {
+            addPrefix = addPrefix.substring(0, addPrefix.length() - 1);
+        }
+        if (!addPrefix.isEmpty() && !addPrefix.startsWith("/")) {
+            throw new IllegalArgumentException("Route " + id + " has add-prefix '" + addPrefix + "', which must start with '/'");
+        }
+        Duration cacheTtl = definition.getCacheTtlSeconds() > 0 ? Duration.ofSeconds(definition.getCacheTtlSeconds()) : null;
+
+        CircuitBreakerOperator<ResponseEntity<Flux<DataBuffer>>> circuitBreaker = null;
+        RateLimiterOperator<ResponseEntity<Flux<DataBuffer>>> rateLimiter = null;
+        if (serviceId != null) {
+            circuitBreaker = CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(
+                    definition.getCircuitBreaker() != null ? definition.getCircuitBreaker() : serviceId));
+            rateLimiter = RateLimiterOperator.of(rateLimiterRegistry.rateLimiter(
+                    definition.getRateLimiter() != null ? definition.getRateLimiter() : serviceId));
+        }
+        return new Route(id, definition.getPath(), serviceId, methods, definition.getStripPrefix(), addPrefix,
+                definition.isAuthRequired(), definition.isCacheEnabled(), cacheTtl, definition.isHedge(),
+                circuitBreaker, rateLimiter, retryRegistry.retry(definition.getRetry()).getRetryConfig());
+    }
+}
@@ -0,0 +1,180 @@
+package com.petrichor.loadbalancer.load_balancer.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Immutable radix trie over path segments. Matching walks the raw path once, comparing each segment
+ * in place against the children of the current node, so it costs O(path length) and allocates nothing.
+ * <p>
+ * Precedence follows specificity: at every segment a literal child is tried before a one-segment
+ * wildcard, and both before a trailing {@code /**}, backtracking when a more specific branch has no
+ * route for the rest of the path. Routes with the same pattern keep their declaration order, so a route
+ * restricted to some methods can precede a catch-all one. Literal segments match case-sensitively, as
+ * the path patterns they replace did.
+ */
+final class RouteTrie {
+    private static final Route[] NO_ROUTES = new Route[0];
+    private static final String[] NO_KEYS = new String[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root;
+
+    private RouteTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param method The request method, or {@code null} to match regardless of method.
+     * @return The most specific route for the path that allows the method, or {@code null}.
+     */
+    Route match(String path, HttpMethod method) {
+        int start = path.startsWith("/") ? 1 : 0;
+        return match(root, path, start, method);
+    }
+
+    private static Route match(Node node, String path, int position, HttpMethod method) {
+        int length = path.length();
+        if (position >= length) {
+            Route route = firstAllowing(node.exact, method);
+            return route != null ? route : firstAllowing(node.remainder, method);
+        }
+
+        int segmentEnd = path.indexOf('/', position);
+        if (segmentEnd < 0) {
+            segmentEnd = length;
+        }
+        int next = segmentEnd < length ? segmentEnd + 1 : length;
+        int segmentLength = segmentEnd - position;
+
+        String[] keys = node.literalKeys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].length() == segmentLength && path.startsWith(keys[i], position)) {
+                Route route = match(node.literalChildren[i], path, next, method);
+                if (route != null) {
+                    return route;
+                }
+                break;
+            }
+        }
+        if (node.wildcard != null && segmentLength > 0) {
+            Route route = match(node.wildcard, path, next, method);
+            if (route != null) {
+                return route;
+            }
+        }
+        return firstAllowing(node.remainder, method);
+    }
+
+    private static Route firstAllowing(Route[] routes, HttpMethod method) {
+        for (Route route : routes) {
+            if (method == null || route.allows(method)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compiles routes into a trie; routes are kept in the given order among equal patterns.
+     *
+     * @throws IllegalArgumentException If a pattern is malformed.
+     */
+    static RouteTrie compile(List<Route> routes) {
+        Builder root = new Builder();
+        for (Route route : routes) {
+            root.add(route);
+        }
+        return new RouteTrie(root.build());
+    }
+
+    private static final class Node {
+        final String[] literalKeys;
+        final Node[] literalChildren;
+        final Node wildcard;
+        final Route[] exact;
+        final Route[] remainder;
+
+        Node(String[] literalKeys, Node[] literalChildren, Node wildcard, Route[] exact, Route[] remainder) {
+            this.literalKeys = literalKeys;
+            this.literalChildren = literalChildren;
+            this.wildcard = wildcard;
+            this.exact = exact;
+            this.remainder = remainder;
+        }
+    }
+
+    private static final class Builder {
+        final List<String> literalKeys = new ArrayList<>();
+        final List<Builder> literalChildren = new ArrayList<>();
+        Builder wildcard;
+        final List<Route> exact = new ArrayList<>();
+        final List<Route> remainder = new ArrayList<>();
+
+        void add(Route route) {
+            String pattern = route.getPattern();
+            if (pattern == null || !pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Route " + route.getId() + " has an invalid path '" + pattern + "', expected an absolute path pattern");
+            }
+            String[] segments = pattern.substring(1).split("/", -1);
+            Builder node = this;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                boolean last = i == segments.length - 1;
+                if (segment.equals("**")) {
+                    if (!last) {
+                        throw new IllegalArgumentException("Route " + route.getId() + " has '**' before the end of its path '" + pattern + "'");
+                    }
+                    node.remainder.add(route);
+                    return;
+                }
+                if (segment.isEmpty()) {
+                    if (last) {
+                        break; // Trailing slash, or the root pattern "/"
+                    }
+                    throw new IllegalArgumentException("Route " + route.getId() + " has an empty segment in its path '" + pattern + "'");
+                }
+                node = isWildcard(segment) ? node.wildcard() : node.literal(segment);
+            }
+            node.exact.add(route);
+        }
+
+        private static boolean isWildcard(String segment) {
+            return segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"));
+        }
+
+        private Builder wildcard() {
+            if (wildcard == null) {
+                wildcard = new Builder();
+            }
+            return wildcard;
+        }
+
+        private Builder literal(String segment) {
+            for (int i = 0; i < literalKeys.size(); i++) {
+                if (literalKeys.get(i).equals(segment)) {
+                    return literalChildren.get(i);
+                }
+            }
+            Builder child = new Builder();
+            literalKeys.add(segment);
+            literalChildren.add(child);
+            return child;
+        }
+
+        Node build() {
+            Node[] children = literalChildren.isEmpty() ? NO_NODES : new Node[literalChildren.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = literalChildren.get(i).build();
+            }
+            return new Node(
+                    literalKeys.isEmpty() ? NO_KEYS : literalKeys.toArray(new String[0]),
+                    children,
+                    wildcard != null ? wildcard.build() : null,
+                    exact.isEmpty() ? NO_ROUTES : exact.toArray(new Route[0]),
+                    remainder.isEmpty() ? NO_ROUTES : remainder.toArray(new Route[0]));
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package com.petrichor.loadbalancer.load_balancer.security;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -11,48 +7,43 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 
+import com.petrichor.loadbalancer.load_balancer.routing.RouteTable;
+
 import reactor.core.publisher.Mono;
 
 @Component
 public class AuthenticationWebFilter implements WebFilter {
 
     private static final Logger log = LoggerFactory.getLogger(AuthenticationWebFilter.class);
-    private final JwtValidationUtil jwtValidationUtil;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
-    // Define paths that should bypass JWT validation in this filter
-    private final List<String> permitAllPaths = Arrays.asList(
-        "/auth/auth/login",
-        "/api/auth-service/auth/login", // Kept for flexibility
-        "/actuator/**",
-        "/api-gateway/actuator/**",
-        "/auth/actuator/**",
-        "/features/actuator/**",
-        "/toggles/actuator/**",
-        "/analytics/actuator/**"
-    );
+    // Exchange attributes holding the validated user, for filters running later in the chain.
+    // Unlike the X-User-* headers, clients cannot supply these themselves.
+    public static final String USER_ID_ATTRIBUTE = AuthenticationWebFilter.class.getName() + ".userId";
+    public static final String USER_ROLES_ATTRIBUTE = AuthenticationWebFilter.class.getName() + ".roles";
 
-    
-    public AuthenticationWebFilter(JwtValidationUtil jwtValidationUtil) {
+    private final JwtValidationUtil jwtValidationUtil;
+    // Routes declared with auth-required: false bypass JWT validation in this filter
+    private final RouteTable routeTable;
+
+    public AuthenticationWebFilter(JwtValidationUtil jwtValidationUtil, RouteTable routeTable) {
         this.jwtValidationUtil = jwtValidationUtil;
+        this.routeTable = routeTable;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getURI().getPath();
+        String path = request.getPath().pathWithinApplication().value(); // Raw, as the route table matches it for routing
         log.debug("[AuthWebFilter] Processing request for path: {}", path);
 
         // Check if the path should be permitted without JWT validation by this filter
-        boolean isPermitted = permitAllPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        boolean isPermitted = routeTable.isPublic(path, request.getMethod());
 
         if (isPermitted) {
             log.debug("[AuthWebFilter] Path {} is permitted to bypass JWT validation by this filter.", path);
@@ -64,24 +55,22 @@ public class AuthenticationWebFilter implements WebFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String authToken = authHeader.substring(7);
-            if (jwtValidationUtil.validateToken(authToken)) {
-                String username = jwtValidationUtil.extractUsername(authToken);
-                List<String> roles = jwtValidationUtil.extractRoles(authToken);
-                String userId = jwtValidationUtil.extractUserId(authToken);
-
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+            JwtPrincipal principal = jwtValidationUtil.verify(authToken); // One parse per token, cached across requests
+            if (principal != null) {
+                String username = principal.getUsername();
+                String userId = principal.getUserId();
 
-                Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, authorities);
+                Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, principal.getAuthorities());
                 
                 ServerHttpRequest mutatedRequest = request.mutate()
                     .header("X-User-Id", userId)
                     .header("X-User-Name", username)
-                    .header("X-User-Roles", String.join(",", roles))
+                    .header("X-User-Roles", principal.getRolesHeader())
                     .build();
                 
                 ServerWebExchange mutatedExchange = exchange.mutate().request(mutatedRequest).build();
+                mutatedExchange.getAttributes().put(USER_ID_ATTRIBUTE, userId != null ? userId : username);
+                mutatedExchange.getAttributes().put(USER_ROLES_ATTRIBUTE, principal.getRoles());
                 log.debug("[AuthWebFilter] Valid JWT. Forwarding with user details for path: {}", path);
                 return chain.filter(mutatedExchange)
                         .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
@@ -0,0 +1,148 @@
+package com.petrichor.loadbalancer.load_balancer.security;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.petrichor.loadbalancer.load_balancer.config.ClientRateLimitConfig;
+import com.petrichor.loadbalancer.load_balancer.limiter.ClientTokenBuckets;
+import com.petrichor.loadbalancer.load_balancer.limiter.RateLimitExceededException;
+import com.petrichor.loadbalancer.load_balancer.util.RoutingKeyResolver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-client rate limiting ({@code CLIENT_RATELIMIT_ENABLED}), so a single user cannot use up a
+ * service's whole budget. Runs after the security chain: authenticated requests are keyed by the
+ * user id {@link AuthenticationWebFilter} validated, anonymous ones by remote address.
+ * <p>
+ * The first rule of {@code CLIENT_RATELIMIT_RULES} matching the path and one of the client's roles
+ * decides the limit; each client has its own bucket per rule, kept in {@link ClientTokenBuckets}.
+ * Requests over the limit fail with 429 and {@code Retry-After}; requests matching no rule pass.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ClientRateLimitWebFilter implements WebFilter {
+    private static final Logger log = LoggerFactory.getLogger(ClientRateLimitWebFilter.class);
+
+    private static final String ANY_AUTHENTICATED = "*";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final ClientTokenBuckets buckets;
+    private final Counter rejected;
+
+    public ClientRateLimitWebFilter(ClientRateLimitConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.rules = parseRules(config.getRules());
+        this.buckets = new ClientTokenBuckets(config.getMaxClients(), TimeUnit.SECONDS.toMillis(config.getIdleEvictionSeconds()));
+        this.rejected = Counter.builder("gateway.ratelimit.client.rejected").register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.client.tracked", buckets, ClientTokenBuckets::size).register(meterRegistry);
+        if (enabled) {
+            log.info("[ClientRateLimitWebFilter] Per-client rate limits enabled with rules {}", config.getRules());
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        String userId = exchange.getAttribute(AuthenticationWebFilter.USER_ID_ATTRIBUTE);
+        List<String> roles = exchange.getAttribute(AuthenticationWebFilter.USER_ROLES_ATTRIBUTE);
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (!rule.appliesTo(userId, roles) || !rule.pattern.matches(path)) {
+                continue;
+            }
+            String client = userId != null ? "user:" + userId : "ip:" + remoteAddress(exchange);
+            long key = RoutingKeyResolver.hash(client, 0, client.length(), i);
+            long waitMillis = buckets.tryAcquire(key, rule.permitsPerSecond, rule.burst);
+            if (waitMillis == 0) {
+                return chain.filter(exchange);
+            }
+            rejected.increment();
+            log.debug("[ClientRateLimitWebFilter] Rejected {} on {} by rule {}", client, path.value(), rule);
+            return Mono.error(new RateLimitExceededException(client, (waitMillis + 999) / 1000));
+        }
+        return chain.filter(exchange);
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static List<Rule> parseRules(String value) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String rawRule : value.split(",")) {
+            String rule = rawRule.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            int rateSeparator = rule.lastIndexOf('=');
+            int roleSeparator = rateSeparator > 0 ? rule.lastIndexOf(':', rateSeparator) : -1;
+            if (roleSeparator <= 0 || roleSeparator + 1 >= rateSeparator) {
+                throw new IllegalArgumentException("Invalid CLIENT_RATELIMIT_RULES entry '" + rule + "', expected <path pattern>:<role>=<permits per second>[/<burst>]");
+            }
+            String limit = rule.substring(rateSeparator + 1).trim();
+            int burstSeparator = limit.indexOf('/');
+            double permitsPerSecond = Double.parseDouble(burstSeparator >= 0 ? limit.substring(0, burstSeparator) : limit);
+            double burst = burstSeparator >= 0 ? Double.parseDouble(limit.substring(burstSeparator + 1)) : permitsPerSecond;
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Invalid CLIENT_RATELIMIT_RULES entry '" + rule + "', the rate must be positive and the burst at least 1");
+            }
+            parsed.add(new Rule(PathPatternParser.defaultInstance.parse(rule.substring(0, roleSeparator).trim()),
+                    rule.substring(roleSeparator + 1, rateSeparator).trim(), permitsPerSecond, burst));
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static final class Rule {
+        final PathPattern pattern;
+        final String role;
+        final double permitsPerSecond;
+        final double burst;
+
+        Rule(PathPattern pattern, String role, double permitsPerSecond, double burst) {
+            this.pattern = pattern;
+            this.role = role;
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        boolean appliesTo(String userId, List<String> roles) {
+            if (userId == null) {
+                return ANONYMOUS.equals(role);
+            }
+            return ANY_AUTHENTICATED.equals(role) || (roles != null && roles.contains(role));
+        }
+
+        @Override
+        public String toString() {
+            return pattern.getPatternString() + ":" + role + "=" + permitsPerSecond + "/" + burst;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.petrichor.loadbalancer.load_balancer.security;
+
+import java.util.List;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * The verified identity a JWT carries, extracted in one parse. Immutable, so one instance can be
+ * cached and shared by every request presenting the same token; the derived values requests need
+ * (authorities, the roles header) are computed once here.
+ */
+public final class JwtPrincipal {
+    private final String userId;
+    private final String username;
+    private final List<String> roles;
+    private final List<SimpleGrantedAuthority> authorities;
+    private final String rolesHeader;
+    private final long expiresAtMillis;
+
+    /**
+     * @param expiresAtMillis Epoch millis of the token's {@code exp}, or {@link Long#MAX_VALUE} if it has none.
+     */
+    public JwtPrincipal(String userId, String username, List<String> roles, long expiresAtMillis) {
+        this.userId = userId;
+        this.username = username;
+        this.roles = roles != null ? List.copyOf(roles) : List.of();
+        this.authorities = this.roles.stream().map(SimpleGrantedAuthority::new).toList();
+        this.rolesHeader = String.join(",", this.roles);
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public List<SimpleGrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public String getRolesHeader() {
+        return rolesHeader;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
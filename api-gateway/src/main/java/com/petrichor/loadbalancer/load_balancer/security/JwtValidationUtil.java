@@ -1,9 +1,13 @@
 package com.petrichor.loadbalancer.load_balancer.security;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.List;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
@@ -12,24 +16,55 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.petrichor.loadbalancer.load_balancer.config.JwtCacheConfig;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys; // Correct import for JJWT 0.12.x
 import io.jsonwebtoken.security.SignatureException; // Import Logger
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct; // Import LoggerFactory
 
+/**
+ * Verifies JWTs into {@link JwtPrincipal}s: the signature is checked and the claims are parsed once per
+ * token. Verified tokens are cached by their SHA-256 digest (never by the token itself), each entry
+ * expiring at the token's {@code exp} or after {@code JWT_CACHE_MAX_TTL_SECONDS}, whichever comes first,
+ * so a client reusing its token skips the HMAC and JSON work entirely. Invalid tokens are never cached.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters tagged {@code cache=gateway-jwt}.
+ */
 @Component
 public class JwtValidationUtil {
 
     private static final Logger log = LoggerFactory.getLogger(JwtValidationUtil.class); // Add logger
 
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every JRE is required to provide it
+        }
+    });
+
     @Value("${jwt.secret}") // This needs to be the same secret as in auth_service
     private String secretString;
 
-    private SecretKey key;
+    private final JwtCacheConfig cacheConfig;
+    private final MeterRegistry meterRegistry;
+    private JwtParser parser;
+    private Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
+
+    public JwtValidationUtil(JwtCacheConfig cacheConfig, MeterRegistry meterRegistry) {
+        this.cacheConfig = cacheConfig;
+        this.meterRegistry = meterRegistry;
+    }
 
     @PostConstruct
     public void init() {
@@ -37,27 +72,68 @@ public class JwtValidationUtil {
          if (keyBytes.length < 32) {
              System.err.println("Warning: JWT secret key in API Gateway is less than 256 bits. Ensure it matches auth_service and is strong.");
         }
-        this.key = Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(key).build(); // Thread-safe; built once rather than per token
+
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(cacheConfig.getMaxTtlSeconds(), 1));
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaxEntries())
+                .expireAfter(new Expiry<ByteBuffer, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, JwtPrincipal value, long currentTime) {
+                        long untilExpiry = value.getExpiresAtMillis() - System.currentTimeMillis();
+                        return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(untilExpiry)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gateway-jwt");
     }
 
-    public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("roles", List.class);
-    }
-     public String extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("userId", String.class);
+    /**
+     * @param token The compact JWS, without the {@code Bearer } prefix.
+     * @return The token's principal, or {@code null} if the token is malformed, badly signed, expired or has no {@code exp}.
+     */
+    public JwtPrincipal verify(String token) {
+        if (!cacheConfig.isEnabled()) {
+            return parse(token);
+        }
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        JwtPrincipal cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        JwtPrincipal principal = parse(token);
+        if (principal != null) {
+            verifiedTokens.put(digest, principal);
+        }
+        return principal;
     }
 
-
-    public boolean validateToken(String token) {
+    private JwtPrincipal parse(String token) {
         try {
-            extractAllClaims(token); // If this doesn't throw, token is structurally valid and signature is okay
-            return !isTokenExpired(token);
+            // Verifies the signature and rejects an expired token (ExpiredJwtException) in the same pass
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                // A token without exp would be valid forever, and so would a leaked one
+                log.error("JWT token has no expiration");
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            List<String> roles = claims.get("roles", List.class);
+            return new JwtPrincipal(claims.get("userId", String.class), claims.getSubject(), roles,
+                    expiration.getTime());
         } catch (SignatureException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -72,27 +148,6 @@ public class JwtValidationUtil {
         } catch (Exception e) { // Catch-all for any other unexpected exceptions
             log.error("Unexpected error during JWT token validation: {}", e.getMessage(), e);
         }
-        return false;
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return null;
     }
-} 
\ No newline at end of file
+}
@@ -1,117 +1,113 @@
 package com.petrichor.loadbalancer.load_balancer.service;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.petrichor.loadbalancer.load_balancer.algorithm.LoadBalancerAlgorithm;
+import com.petrichor.loadbalancer.load_balancer.accesslog.AccessLogRecord;
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceSelector;
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
 import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
 import com.petrichor.loadbalancer.load_balancer.factory.LoadBalancerAlgorithmFactory;
+import com.petrichor.loadbalancer.load_balancer.limiter.ConcurrencyLimitExceededException;
+import com.petrichor.loadbalancer.load_balancer.limiter.RateLimitExceededException;
 import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
-import com.petrichor.loadbalancer.load_balancer.registry.ServerInfoRegistry;
-
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
-import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
-import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
-import io.github.resilience4j.reactor.retry.RetryOperator;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryRegistry;
+import com.petrichor.loadbalancer.load_balancer.registry.ServiceInstanceRegistry;
+import com.petrichor.loadbalancer.load_balancer.registry.UpstreamClientRegistry;
+import com.petrichor.loadbalancer.load_balancer.routing.Route;
+import com.petrichor.loadbalancer.load_balancer.util.HopByHopHeaderFilter;
+import com.petrichor.loadbalancer.load_balancer.util.RoutingKeyResolver;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.RetryConfig;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
 public class ApiGatewayService {
     private static final Logger logger = LoggerFactory.getLogger(ApiGatewayService.class);
+    private static final DataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
 
-    private final WebClient webClient;
-    private final LoadBalancerAlgorithm loadBalancerAlgorithm;
+    private final UpstreamClientRegistry upstreamClients;
+    private final InstanceSelector instanceSelector;
     private final LoadBalancerConfig config;
-    private final CircuitBreakerRegistry circuitBreakerRegistry;
-    private final RetryRegistry retryRegistry;
-    private final ReactiveDiscoveryClient discoveryClient;
-    private final RateLimiterRegistry rateLimiterRegistry;
-    private final ReactiveStringRedisTemplate redisTemplate;
-    private final Duration cacheTtl; 
-    private final ServerInfoRegistry serverInfoRegistry;
+    private final ServiceInstanceRegistry serviceInstanceRegistry;
+    private final RoutingKeyResolver routingKeyResolver;
+    private final OutlierDetectionService outlierDetectionService;
+    private final HedgingService hedgingService;
+    private final RetryBudgetService retryBudgetService;
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final DistributedRateLimitService distributedRateLimitService;
+    private final ResponseCacheService responseCacheService;
 
     public ApiGatewayService(
             LoadBalancerConfig config,
-            WebClient webClient,
-            CircuitBreakerRegistry circuitBreakerRegistry,
-            RetryRegistry retryRegistry,
-            RateLimiterRegistry rateLimiterRegistry,
-            ReactiveDiscoveryClient reactiveDiscoveryClient,
-            ReactiveStringRedisTemplate redisTemplate, 
-            ServerInfoRegistry serverInfoRegistry 
+            UpstreamClientRegistry upstreamClients,
+            ServiceInstanceRegistry serviceInstanceRegistry,
+            RoutingKeyResolver routingKeyResolver,
+            OutlierDetectionService outlierDetectionService,
+            HedgingService hedgingService,
+            RetryBudgetService retryBudgetService,
+            ConcurrencyLimitService concurrencyLimitService,
+            DistributedRateLimitService distributedRateLimitService,
+            ResponseCacheService responseCacheService
     ) {
         try {
-        this.webClient = webClient;
+        this.upstreamClients = upstreamClients;
         this.config = config;
-            this.discoveryClient = reactiveDiscoveryClient;
-        this.circuitBreakerRegistry = circuitBreakerRegistry;
-        this.retryRegistry = retryRegistry;
-        this.rateLimiterRegistry = rateLimiterRegistry;
-        this.loadBalancerAlgorithm = LoadBalancerAlgorithmFactory.getAlgorithm(config.getAlgorithm());
-            this.redisTemplate = redisTemplate;
-            this.cacheTtl = Duration.ofSeconds(config.getCacheTtlSeconds() > 0 ? config.getCacheTtlSeconds() : 60); // Default to 60s, get from config
-            this.serverInfoRegistry = serverInfoRegistry; // Assigned field
+        this.instanceSelector = LoadBalancerAlgorithmFactory.getSelector(config);
+            this.serviceInstanceRegistry = serviceInstanceRegistry;
+            this.routingKeyResolver = routingKeyResolver;
+            this.outlierDetectionService = outlierDetectionService;
+            this.hedgingService = hedgingService;
+            this.retryBudgetService = retryBudgetService;
+            this.concurrencyLimitService = concurrencyLimitService;
+            this.distributedRateLimitService = distributedRateLimitService;
+            this.responseCacheService = responseCacheService;
 
             logger.info("[ApiGatewayService] Initialized with load balancer: " +
-                    this.loadBalancerAlgorithm.getClass().getSimpleName() + " and Cache TTL: " + this.cacheTtl.getSeconds() + "s");
-            if (this.redisTemplate == null) {
-                logger.error("[ApiGatewayService] CRITICAL: ReactiveStringRedisTemplate is NULL after injection.");
-            }
+                    this.instanceSelector.getClass().getSimpleName());
         } catch (Exception e) {
             logger.error("[ApiGatewayService] CRITICAL ERROR in constructor: ", e);
             throw e; // Re-throw to ensure Spring's context failure
         }
     }
 
-    private String generateCacheKey(String serviceName, String path, String httpMethod) {
-        // A more robust key might include query parameters or specific headers if they alter the response.
-        return String.format("api-gateway-cache:%s:%s:%s", serviceName, path, httpMethod.toUpperCase());
-    }
-
-    public Mono<String> forwardRequest(String serviceName, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
-        if (HttpMethod.GET.name().equalsIgnoreCase(httpMethod)) {
-            String cacheKey = generateCacheKey(serviceName, path, httpMethod);
-            System.out.printf("[forwardRequest] Attempting cache lookup for %s request. Key: %s%n", httpMethod, cacheKey);
-
-            return redisTemplate.opsForValue().get(cacheKey)
-                    .flatMap(cachedResponse -> {
-                        System.out.printf("[forwardRequest] Cache HIT for key: %s%n", cacheKey);
-                        return Mono.just(cachedResponse);
-                    })
-                    .switchIfEmpty(Mono.<String>defer(() -> {
-                        System.out.printf("[forwardRequest] Cache MISS for key: %s. Fetching from service.%n", cacheKey);
-                        // Pass headers and body for cache miss scenario too, though GETs won't typically have a body
-                        return resolveAndForward(serviceName, path, httpMethod, headers, body)
-                                .flatMap(responseFromService -> {
-                                    // Cache only successful responses (e.g. assuming String response implies success for now)
-                                    System.out.printf("[forwardRequest] Caching response for key: %s with TTL: %s%n", cacheKey, cacheTtl);
-                                    return redisTemplate.opsForValue().set(cacheKey, responseFromService, cacheTtl)
-                                            .thenReturn(responseFromService); // Return the original response after caching
-                                });
-                    }));
+    /**
+     * @param route The route the request matched; decides the target service and the policies applied.
+     * @param path The path within the target service, still percent-encoded.
+     * @param query The raw query string (without '?'), or {@code null}.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forwardRequest(Route route, String path, String query, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
+        String pathAndQuery = query == null || query.isEmpty() ? path : path + "?" + query;
+        if (route.isCacheEnabled() && HttpMethod.GET.name().equalsIgnoreCase(httpMethod)) {
+            // Pass headers and body for cache miss scenario too, though GETs won't typically have a body
+            return responseCacheService.getOrFetch(serviceName, path, query, httpMethod, headers, route.getCacheTtl(),
+                    upstreamHeaders -> resolveAndForward(route, pathAndQuery, httpMethod, upstreamHeaders, body));
         } else {
-            // For non-GET requests, or if caching is disabled for the method, proceed without caching.
-            System.out.printf("[forwardRequest] Non-cacheable method %s. Forwarding directly.%n", httpMethod);
-            return resolveAndForward(serviceName, path, httpMethod, headers, body);
+            // For non-GET requests, or if caching is disabled for the route, stream straight through.
+            return resolveAndForward(route, pathAndQuery, httpMethod, headers, body);
         }
     }
 
@@ -119,88 +115,263 @@ public class ApiGatewayService {
      * Handles the actual resolution of service instance and forwarding the request.
      * This part is called on a cache miss or for non-cacheable methods.
      */
-    private Mono<String> resolveAndForward(String serviceName, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
-        logger.info("[resolveAndForward] Processing {} request for service: {}, path: {}", httpMethod, serviceName, path);
-
-        return this.discoveryClient.getInstances(serviceName) // This now returns Flux<ServiceInstance>
-            .collectList() // Convert Flux<ServiceInstance> to Mono<List<ServiceInstance>>
-            .flatMap(serviceInstances -> {
-                if (serviceInstances.isEmpty()) {
-                    logger.warn("[resolveAndForward] No instances found for service: {}", serviceName);
+    private Mono<ResponseEntity<Flux<DataBuffer>>> resolveAndForward(Route route, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
+        InstanceView instances = serviceInstanceRegistry.getSnapshot(serviceName);
+        if (instances == null) {
+            // First request for a service the last registry refresh did not know about
+            return serviceInstanceRegistry.getInstances(serviceName)
+                    .flatMap(loaded -> routeTo(route, loaded, path, httpMethod, headers, body));
+        }
+        return routeTo(route, instances, path, httpMethod, headers, body);
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> routeTo(Route route, InstanceView instances, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
+        if (instances.isEmpty()) {
+            logger.warn("[resolveAndForward] No instances found for service: {}", serviceName);
             return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                            "No instances available for service: " + serviceName));
-                }
+                    "No instances available for service: " + serviceName));
+        }
 
-                // Use ServerInfoRegistry to get or create ServerInfo objects
-                List<ServerInfo> availableServers = serviceInstances.stream()
-                        .map(si -> serverInfoRegistry.getOrCreateServerInfo(si.getUri().toString()))
-                        .toList();
+        long routingHash = instanceSelector.usesRoutingHash()
+                ? routingKeyResolver.resolve(path, headers)
+                : RoutingKeyResolver.NO_KEY;
+        retryBudgetService.onRequest(serviceName);
+
+        // The hedge timer adds to the tried instances while the primary attempt may be retrying
+        return attempt(route, instances, routingHash, new CopyOnWriteArrayList<>(), 1, path, httpMethod, headers, body)
+                // Relay the upstream error response once there is nothing left to retry
+                .onErrorResume(WebClientResponseException.class, ex -> Mono.just(new ResponseEntity<>(
+                        Flux.just(BUFFER_FACTORY.wrap(ex.getResponseBodyAsByteArray())),
+                        HopByHopHeaderFilter.filterResponseHeaders(ex.getHeaders()),
+                        ex.getStatusCode())));
+    }
 
-                Optional<ServerInfo> selectedServerOptional = loadBalancerAlgorithm.selectServer(availableServers);
+    /**
+     * One attempt of the request. Every attempt re-runs instance selection and avoids the instances the
+     * request was already sent to (falling back to any healthy instance once all have been tried).
+     * A retryable failure is retried per the route's retry config ({@code load-balancer-retry} by default) -
+     * attempts, backoff and which errors qualify - as long as the service's retry budget allows. Requests whose body is streamed
+     * upstream cannot be replayed and are not retried, nor are calls refused locally by the rate limiter,
+     * concurrency limit or circuit breaker.
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> attempt(Route route, InstanceView instances, long routingHash, List<ServerInfo> tried,
+                                                           int attemptNumber, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
+        InstanceView current = attemptNumber == 1 ? instances : instances.refreshed();
+        ServerInfo server = instanceSelector.select(current, routingHash, tried);
+        if (server == null && !tried.isEmpty()) {
+            server = instanceSelector.select(current, routingHash);
+        }
 
-                if (selectedServerOptional.isEmpty()) {
-                    logger.warn("[resolveAndForward] Load balancer failed to select an instance for service: {}", serviceName);
+        if (server == null) {
+            logger.warn("[resolveAndForward] Load balancer failed to select an instance for service: {}", serviceName);
             return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                            "LoadBalancer failed to select instance for service: " + serviceName));
+                    "LoadBalancer failed to select instance for service: " + serviceName));
         }
+        tried.add(server);
 
-                ServerInfo server = selectedServerOptional.get();
-                
+        Duration hedgeDelay = hedgingService.hedgeDelay(route, httpMethod, server);
+        Mono<ResponseEntity<Flux<DataBuffer>>> call = hedgeDelay != null && current.healthyCount() > 1
+                ? hedged(route, current, routingHash, tried, server, attemptNumber, hedgeDelay, path, httpMethod, headers, body)
+                : sendTo(route, server, attemptNumber, path, httpMethod, headers, body);
+
+        RetryConfig retryConfig = route.getRetryConfig();
+        return call.onErrorResume(error -> {
+            if (attemptNumber >= retryConfig.getMaxAttempts() || !isRetryable(error, httpMethod, retryConfig)) {
+                return Mono.error(error);
+            }
+            if (!retryBudgetService.tryAcquireRetry(serviceName)) {
+                logger.warn("[resolveAndForward] Retry budget of service {} exhausted, not retrying: {}", serviceName, error.getMessage());
+                return Mono.error(error);
+            }
+            long backoffMillis = retryConfig.getIntervalBiFunction().apply(attemptNumber, Either.left(error));
+            logger.debug("[resolveAndForward] Attempt {} for service {} failed ({}), retrying on another instance in {} ms",
+                    attemptNumber, serviceName, error.getMessage(), backoffMillis);
+            return Mono.delay(Duration.ofMillis(backoffMillis))
+                    .then(Mono.defer(() -> attempt(route, instances, routingHash, tried, attemptNumber + 1, path, httpMethod, headers, body)));
+        });
+    }
+
+    private static boolean isRetryable(Throwable error, String httpMethod, RetryConfig retryConfig) {
+        if (isLocalRefusal(error) || hasRequestBody(httpMethod)) {
+            return false;
+        }
+        return retryConfig.getExceptionPredicate().test(error);
+    }
+
+    // Calls refused by a rate limiter, the concurrency limit or an open circuit breaker never reached the instance
+    private static boolean isLocalRefusal(Throwable error) {
+        return error instanceof RequestNotPermitted
+                || error instanceof RateLimitExceededException
+                || error instanceof ConcurrencyLimitExceededException
+                || error instanceof CallNotPermittedException;
+    }
+
+    private static boolean hasRequestBody(String httpMethod) {
+        HttpMethod method = HttpMethod.valueOf(httpMethod);
+        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
+    }
+
+    /**
+     * Sends the request to {@code server} and, if it has not answered after {@code hedgeDelay}, also to
+     * another instance (budget permitting). The first response is relayed and the other request is
+     * cancelled, or its body discarded if it answered at the same moment. A hedge that fails or answers
+     * 5xx simply drops out; a failure of the first request fails the request as it would without hedging.
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> hedged(Route route, InstanceView instances, long routingHash, List<ServerInfo> tried, ServerInfo server,
+                                                          int attemptNumber, Duration hedgeDelay, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
+        AtomicBoolean settled = new AtomicBoolean(false);
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> primary = sendTo(route, server, attemptNumber, path, httpMethod, headers, body)
+                .flatMap(response -> settle(settled, response))
+                .onErrorResume(error -> settled.compareAndSet(false, true) ? Mono.error(error) : Mono.never());
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> hedge = Mono.delay(hedgeDelay)
+                .flatMap(tick -> {
+                    ServerInfo hedgeServer = instanceSelector.select(instances.refreshed(), routingHash, tried);
+                    if (hedgeServer == null || !hedgingService.tryAcquireHedge(serviceName)) {
+                        return Mono.never();
+                    }
+                    tried.add(hedgeServer);
+                    logger.debug("[resolveAndForward] No response from {} after {} ms, hedging to {}",
+                            server.getUrl(), hedgeDelay.toMillis(), hedgeServer.getUrl());
+                    return sendTo(route, hedgeServer, attemptNumber, path, httpMethod, headers, body)
+                            .onErrorResume(error -> {
+                                logger.debug("[resolveAndForward] Hedge to {} failed: {}", hedgeServer.getUrl(), error.getMessage());
+                                return Mono.never();
+                            })
+                            // A hedge that only got a server error drops out too
+                            .flatMap(response -> response.getStatusCode().is5xxServerError()
+                                    ? discard(response)
+                                    : settle(settled, response))
+                            .doOnNext(response -> hedgingService.onHedgeWon());
+                });
+
+        // Only the side that settles ever signals, so the other one is always the one cancelled
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> settle(AtomicBoolean settled, ResponseEntity<Flux<DataBuffer>> response) {
+        if (settled.compareAndSet(false, true)) {
+            return Mono.just(response);
+        }
+        // Lost a photo finish
+        return discard(response);
+    }
+
+    // Cancelling the body also releases the instance's connection
+    private static <T> Mono<T> discard(ResponseEntity<Flux<DataBuffer>> response) {
+        bodyOf(response).subscribe(DataBufferUtils::release).dispose();
+        return Mono.never();
+    }
+
+    /**
+     * Sends one upstream call and counts it, and the instance that answered, in the request's access-log record.
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> sendTo(Route route, ServerInfo server, int attemptNumber, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        return Mono.deferContextual(context -> {
+            AccessLogRecord accessLog = AccessLogRecord.from(context);
+            if (accessLog != null) {
+                accessLog.onUpstreamCall(attemptNumber);
+                accessLog.setInstance(server.getUrl());
+            }
+            Mono<ResponseEntity<Flux<DataBuffer>>> call = sendTo(route, server, path, httpMethod, headers, body);
+            // With a hedge in flight, the instance whose response is relayed is the one that counts
+            return accessLog != null ? call.doOnNext(response -> accessLog.setInstance(server.getUrl())) : call;
+        });
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> sendTo(Route route, ServerInfo server, String path, String httpMethod, HttpHeaders headers, Flux<DataBuffer> body) {
+        String serviceName = route.getServiceId();
         server.incrementConnections();
-                logger.info("[resolveAndForward] Routing to instance: {} for service: {}", server.getUrl(), serviceName); 
 
-                // Pass headers and body to forwardToInstance
-                return forwardToInstance(serviceName, server, path, httpMethod, headers, body)
+        // The connection stays active until the relayed body has been fully written (or abandoned),
+        // not merely until the upstream status line arrives.
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable releaseConnection = () -> {
+            if (released.compareAndSet(false, true)) {
+                logger.trace("[resolveAndForward] Finished request to {} for service {} - decrementing connections.", server.getUrl(), serviceName);
+                server.decrementConnections();
+            }
+        };
+
+        // Pass headers and body to forwardToInstance
+        return forwardToInstance(route, server, path, httpMethod, headers, body)
+                .map(response -> new ResponseEntity<>(
+                        bodyOf(response).doFinally(signalType -> releaseConnection.run()),
+                        response.getHeaders(),
+                        response.getStatusCode()))
                 .doOnError(err -> {
-                            logger.error("[resolveAndForward] Request to {} for service {} failed ultimately: {}", server.getUrl(), serviceName, err.getMessage(), err);
+                    logger.warn("[resolveAndForward] Request to {} for service {} failed: {}", server.getUrl(), serviceName, err.getMessage());
+                    releaseConnection.run();
                 })
-                .doFinally(signalType -> {
-                            logger.info("[resolveAndForward] Finished request to {} for service {} - decrementing connections. Signal: {}", server.getUrl(), serviceName, signalType);
-                    server.decrementConnections();
-                        });
-                });
+                .doOnCancel(releaseConnection);
     }
 
     /**
-     * Performs the actual HTTP call to the target service instance,
-     * wrapped with Resilience4j policies (RateLimiter, CircuitBreaker, Retry).
+     * Performs the actual HTTP call to the target service instance over the service's own connection pool,
+     * wrapped with the route's Resilience4j policies (RateLimiter - or the cluster-wide rate limit and/or the adaptive
+     * concurrency limit instead - and CircuitBreaker); retries happen per attempt in
+     * {@link #attempt}, so that they can go to a different instance.
+     * The upstream status, filtered headers and body are relayed as-is; the body is a
+     * {@code Flux<DataBuffer>} so it streams to the client with backpressure instead of being decoded.
+     * 5xx responses surface as {@link WebClientResponseException}s, so they count as failures for the
+     * circuit breaker, retry, latency statistics and outlier detection, and are relayed once there is
+     * nothing left to retry.
      */
-    private Mono<String> forwardToInstance(String serviceName, ServerInfo server, String path, String method, HttpHeaders headers, Flux<DataBuffer> body)
+    private Mono<ResponseEntity<Flux<DataBuffer>>> forwardToInstance(Route route, ServerInfo server, String path, String method, HttpHeaders headers, Flux<DataBuffer> body)
     {
+        String serviceName = route.getServiceId();
         String url = server.getUrl() + path;
-        long startTime = System.currentTimeMillis(); // For measuring response time, potentially for ServerInfo
-
-        // Fetch service-specific or global Resilience4j components
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(serviceName);
-        Retry retry = retryRegistry.retry("load-balancer-retry");
-        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(serviceName); // Service-specific rate limiter
-
-        System.out.printf("[forwardToInstance] Sending %s to: %s%n", method, url);
+        long startNanos = System.nanoTime(); // Monotonic; feeds the per-instance latency statistics
 
-        WebClient.RequestBodySpec requestSpec = webClient.method(HttpMethod.valueOf(method))
-                .uri(url)
-                .headers(h -> {
-                    h.addAll(headers); // Copy all original headers
-                    // WebClient manages Host header, Content-Length, Transfer-Encoding automatically
-                    // Remove potentially problematic headers if necessary, e.g., h.remove(HttpHeaders.HOST);
-                });
+        HttpHeaders forwardedHeaders = HopByHopHeaderFilter.filterRequestHeaders(headers);
+        WebClient.RequestBodySpec requestSpec = upstreamClients.forService(serviceName).method(HttpMethod.valueOf(method))
+                .uri(URI.create(url)) // Path and query are already encoded; don't let the URI template encode them again
+                .headers(h -> h.addAll(forwardedHeaders));
 
         WebClient.RequestHeadersSpec<?> finalSpec;
-        if (HttpMethod.valueOf(method) == HttpMethod.POST || HttpMethod.valueOf(method) == HttpMethod.PUT || HttpMethod.valueOf(method) == HttpMethod.PATCH) {
+        if (hasRequestBody(method)) {
             finalSpec = requestSpec.body(body, DataBuffer.class);
         } else {
             finalSpec = requestSpec;
         }
         
-        return finalSpec.retrieve()
-                .bodyToMono(String.class)
-                .transform(RateLimiterOperator.of(rateLimiter))
-                .transform(CircuitBreakerOperator.of(circuitBreaker))
-                .transform(RetryOperator.of(retry))
-                .doOnSuccess(response -> { 
-                    double elapsed = System.currentTimeMillis() - startTime;
-                    server.setAvgResponseTime((server.getAvgResponseTime() + elapsed) / 2.0);
-                    System.out.printf("[forwardToInstance] Received response from %s in %.2f ms%n", server.getUrl(), elapsed);
+        Mono<ResponseEntity<Flux<DataBuffer>>> call = finalSpec.retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, clientResponse -> Mono.empty()) // Relay 4xx as a normal response
+                .toEntityFlux(DataBuffer.class);
+        if (concurrencyLimitService.isEnabled()) {
+            call = concurrencyLimitService.limit(serviceName, server, call);
+        }
+        if (distributedRateLimitService.isEnabled()) {
+            call = distributedRateLimitService.limit(serviceName, call);
+        } else if (!concurrencyLimitService.isEnabled()) {
+            call = call.transform(route.getRateLimiter());
+        }
+
+        return call
+                .transform(route.getCircuitBreaker())
+                .map(response -> new ResponseEntity<>(
+                        bodyOf(response),
+                        HopByHopHeaderFilter.filterResponseHeaders(response.getHeaders()),
+                        response.getStatusCode()))
+                .doOnError(error -> {
+                    if (!isLocalRefusal(error)) {
+                        server.recordCall(System.nanoTime() - startNanos, true);
+                        outlierDetectionService.onCallCompleted(serviceName, server, true);
+                    }
+                })
+                // Only 2xx-4xx responses get here; 5xx were counted as failures in doOnError
+                .doOnSuccess(response -> {
+                    server.recordCall(System.nanoTime() - startNanos, false);
+                    outlierDetectionService.onCallCompleted(serviceName, server, false);
                 });
     }
-}
\ No newline at end of file
+
+    private static Flux<DataBuffer> bodyOf(ResponseEntity<Flux<DataBuffer>> response) {
+        return response.getBody() != null ? response.getBody() : Flux.empty();
+    }
+}
@@ -0,0 +1,186 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.petrichor.loadbalancer.load_balancer.config.ConcurrencyLimitConfig;
+import com.petrichor.loadbalancer.load_balancer.limiter.AdaptiveConcurrencyLimiter;
+import com.petrichor.loadbalancer.load_balancer.limiter.ConcurrencyLimitExceededException;
+import com.petrichor.loadbalancer.load_balancer.limiter.GradientLimitAlgorithm;
+import com.petrichor.loadbalancer.load_balancer.limiter.LimitAlgorithm;
+import com.petrichor.loadbalancer.load_balancer.limiter.VegasLimitAlgorithm;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.registry.InstancesChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Adaptive concurrency limiting of upstream calls, the alternative to the static per-service
+ * Resilience4j rate limiter ({@code CONCURRENCY_LIMIT_ENABLED}). Each service - or, with
+ * {@code CONCURRENCY_LIMIT_SCOPE=instance}, each instance - gets an {@link AdaptiveConcurrencyLimiter}
+ * that finds its in-flight limit from measured round-trip times ({@code gradient} or {@code vegas}),
+ * and calls beyond the limit fail at once with 503 instead of queueing.
+ * <p>
+ * Metrics: {@code gateway.concurrency.limit}, {@code gateway.concurrency.inflight} and
+ * {@code gateway.concurrency.rejected}, tagged with the service (and instance). The limiters and meters
+ * of an instance are removed once it leaves the service.
+ */
+@Service
+public class ConcurrencyLimitService {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitService.class);
+
+    private final ConcurrencyLimitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final boolean perInstance;
+    private final long windowNanos;
+    private final Map<String, Guard> serviceGuards = new ConcurrentHashMap<>();
+    // Service -> instance URL -> guard
+    private final Map<String, Map<String, Guard>> instanceGuards = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitService(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.perInstance = "instance".equalsIgnoreCase(config.getScope().trim());
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getWindowMs());
+        if (config.isEnabled()) {
+            // Fail fast on a typo rather than on the first request
+            newAlgorithm();
+            logger.info("[ConcurrencyLimitService] Adaptive concurrency limit ({}, per {}) replaces the static rate limiter",
+                    config.getAlgorithm(), perInstance ? "instance" : "service");
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Runs {@code call} under the concurrency limit of the service or instance. The slot is held until the
+     * relayed response body terminates, and the call's outcome and round-trip time up to then feed the limit;
+     * errors count as drops, and cancelled calls free the slot without a sample.
+     *
+     * @return {@code call}, or a {@link ConcurrencyLimitExceededException} if the limit is reached.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> limit(String serviceName, ServerInfo server, Mono<ResponseEntity<Flux<DataBuffer>>> call) {
+        return Mono.defer(() -> {
+            Guard guard = perInstance
+                    ? instanceGuards.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(server.getUrl(), url -> newGuard(serviceName, url))
+                    : serviceGuards.computeIfAbsent(serviceName, key -> newGuard(key, null));
+            AdaptiveConcurrencyLimiter limiter = guard.limiter;
+            if (!limiter.tryAcquire()) {
+                guard.rejected.increment();
+                return Mono.error(new ConcurrencyLimitExceededException(perInstance ? server.getUrl() : serviceName));
+            }
+
+            long startNanos = System.nanoTime();
+            AtomicBoolean completed = new AtomicBoolean(false);
+            Consumer<SignalType> finish = signal -> {
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                if (signal == SignalType.CANCEL) {
+                    limiter.release();
+                } else {
+                    limiter.onSample(System.nanoTime() - startNanos, signal == SignalType.ON_ERROR);
+                }
+            };
+            return call
+                    .map(response -> new ResponseEntity<>(
+                            (response.getBody() != null ? response.getBody() : Flux.<DataBuffer>empty()).doFinally(finish),
+                            response.getHeaders(),
+                            response.getStatusCode()))
+                    .doOnSuccess(response -> {
+                        if (response == null) {
+                            finish.accept(SignalType.ON_COMPLETE);
+                        }
+                    })
+                    .doOnError(error -> finish.accept(SignalType.ON_ERROR))
+                    .doOnCancel(() -> finish.accept(SignalType.CANCEL));
+        });
+    }
+
+    @EventListener(InstancesChangedEvent.class)
+    public void onInstancesChanged(InstancesChangedEvent event) {
+        Map<String, Guard> guards = instanceGuards.get(event.getServiceName());
+        if (guards == null) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        for (ServerInfo server : event.getInstances().members()) {
+            current.add(server.getUrl());
+        }
+        // Calls still running on a removed guard finish against its limiter, just no longer metered
+        guards.entrySet().removeIf(entry -> {
+            if (current.contains(entry.getKey())) {
+                return false;
+            }
+            for (Meter meter : entry.getValue().meters) {
+                meterRegistry.remove(meter);
+            }
+            return true;
+        });
+    }
+
+    private Guard newGuard(String serviceName, String instanceUrl) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(newAlgorithm(),
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(), windowNanos, config.getMinWindowSamples());
+        Tags tags = instanceUrl != null
+                ? Tags.of("service", serviceName, "instance", instanceUrl)
+                : Tags.of("service", serviceName);
+        Gauge limit = Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge inFlight = Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tags(tags)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .tags(tags)
+                .register(meterRegistry);
+        return new Guard(limiter, rejected, List.of(limit, inFlight, rejected));
+    }
+
+    private LimitAlgorithm newAlgorithm() {
+        switch (config.getAlgorithm().trim().toLowerCase(Locale.ROOT)) {
+            case "gradient":
+                return new GradientLimitAlgorithm(config.getRttTolerance(), config.getSmoothing());
+            case "vegas":
+                return new VegasLimitAlgorithm(config.getSmoothing());
+            default:
+                throw new IllegalArgumentException("Unknown concurrency limit algorithm: " + config.getAlgorithm());
+        }
+    }
+
+    private static final class Guard {
+        final AdaptiveConcurrencyLimiter limiter;
+        final Counter rejected;
+        final List<Meter> meters;
+
+        Guard(AdaptiveConcurrencyLimiter limiter, Counter rejected, List<Meter> meters) {
+            this.limiter = limiter;
+            this.rejected = rejected;
+            this.meters = meters;
+        }
+    }
+}
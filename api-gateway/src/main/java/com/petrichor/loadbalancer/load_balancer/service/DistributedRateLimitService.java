@@ -0,0 +1,153 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.petrichor.loadbalancer.load_balancer.config.DistributedRateLimitConfig;
+import com.petrichor.loadbalancer.load_balancer.limiter.LeasedTokenBucket;
+import com.petrichor.loadbalancer.load_balancer.limiter.RateLimitExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cluster-wide per-service rate limiting, the alternative to the per-gateway static Resilience4j rate
+ * limiter ({@code DISTRIBUTED_RATELIMIT_ENABLED}). Each service has one token bucket in Redis, refilled
+ * at the service's permits per second and updated atomically by a Lua script using the Redis server
+ * clock, so all replicas share one limit no matter how many there are.
+ * <p>
+ * Replicas do not call Redis per request: each leases small batches of tokens into a
+ * {@link LeasedTokenBucket} (at most a tenth of a second of permits, and {@code DISTRIBUTED_RATELIMIT_MAX_LEASE})
+ * and refills in the background. Requests over the limit fail with 429 and {@code Retry-After}.
+ * While Redis is unreachable requests pass, unless {@code DISTRIBUTED_RATELIMIT_FAIL_OPEN=false}.
+ */
+@Service
+public class DistributedRateLimitService {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimitService.class);
+
+    private static final String KEY_PREFIX = "api-gateway-ratelimit:";
+    private static final double LEASE_SECONDS = 0.1;
+
+    // KEYS[1] = bucket; ARGV = permits per second, capacity, requested tokens. Returns the tokens granted.
+    private static final RedisScript<Long> LEASE_SCRIPT = RedisScript.of(
+            "local rate = tonumber(ARGV[1]) "
+                    + "local capacity = tonumber(ARGV[2]) "
+                    + "local requested = tonumber(ARGV[3]) "
+                    + "local time = redis.call('TIME') "
+                    + "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) "
+                    + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+                    + "local tokens = tonumber(state[1]) "
+                    + "local ts = tonumber(state[2]) "
+                    + "if tokens == nil or ts == nil then tokens = capacity ts = now end "
+                    + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000000) "
+                    + "local granted = math.min(requested, math.floor(tokens)) "
+                    + "tokens = tokens - granted "
+                    + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) "
+                    + "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000) "
+                    + "return granted",
+            Long.class);
+
+    private final DistributedRateLimitConfig config;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Double> servicePermits;
+    private final long leaseTtlNanos;
+    private final Map<String, ServiceLimit> limits = new ConcurrentHashMap<>();
+
+    public DistributedRateLimitService(DistributedRateLimitConfig config, ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.servicePermits = parseServicePermits(config.getServicePermits());
+        this.leaseTtlNanos = TimeUnit.MILLISECONDS.toNanos(config.getLeaseTtlMs());
+        if (config.isEnabled()) {
+            logger.info("[DistributedRateLimitService] Cluster-wide rate limit of {}/s per service (overrides: {}) replaces the static rate limiter",
+                    config.getPermitsPerSecond(), servicePermits);
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Runs {@code call} if the service's cluster-wide bucket has a permit, otherwise fails with a
+     * {@link RateLimitExceededException}, which reaches the client as 429 with {@code Retry-After}.
+     */
+    public <T> Mono<T> limit(String serviceName, Mono<T> call) {
+        return Mono.defer(() -> {
+            ServiceLimit limit = limits.computeIfAbsent(serviceName, this::newLimit);
+            return limit.bucket.acquire()
+                    .onErrorResume(error -> {
+                        logger.warn("[DistributedRateLimitService] Could not lease permits for {}: {}", serviceName, error.getMessage());
+                        return Mono.just(config.isFailOpen());
+                    })
+                    .flatMap(permitted -> {
+                        if (permitted) {
+                            return call;
+                        }
+                        limit.rejected.increment();
+                        return Mono.error(new RateLimitExceededException(serviceName, limit.retryAfterSeconds));
+                    });
+        });
+    }
+
+    private ServiceLimit newLimit(String serviceName) {
+        double permitsPerSecond = Math.max(servicePermits.getOrDefault(serviceName.toUpperCase(Locale.ROOT), config.getPermitsPerSecond()), 0.001);
+        int leaseSize = (int) Math.max(1, Math.min(config.getMaxLease(), Math.ceil(permitsPerSecond * LEASE_SECONDS)));
+        double capacity = Math.max(permitsPerSecond * config.getBurstSeconds(), leaseSize);
+        List<String> keys = List.of(KEY_PREFIX + serviceName);
+        String rate = Double.toString(permitsPerSecond);
+        String capacityArg = Double.toString(capacity);
+
+        Counter leases = Counter.builder("gateway.ratelimit.distributed.leases").tag("service", serviceName).register(meterRegistry);
+        LeasedTokenBucket bucket = new LeasedTokenBucket(leaseSize, leaseTtlNanos, requested -> {
+            leases.increment();
+            return redisTemplate.execute(LEASE_SCRIPT, keys, List.of(rate, capacityArg, Integer.toString(requested)))
+                    .next()
+                    .defaultIfEmpty(0L);
+        });
+        Counter rejected = Counter.builder("gateway.ratelimit.distributed.rejected").tag("service", serviceName).register(meterRegistry);
+        long retryAfterSeconds = (long) Math.ceil(1.0 / permitsPerSecond);
+        return new ServiceLimit(bucket, rejected, retryAfterSeconds);
+    }
+
+    private static Map<String, Double> parseServicePermits(String value) {
+        Map<String, Double> parsed = new HashMap<>();
+        for (String rawEntry : value.split(",")) {
+            String entry = rawEntry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid DISTRIBUTED_RATELIMIT_SERVICE_PERMITS entry '" + entry + "', expected <SERVICE>=<permits per second>");
+            }
+            parsed.put(entry.substring(0, separator).trim().toUpperCase(Locale.ROOT), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private static final class ServiceLimit {
+        final LeasedTokenBucket bucket;
+        final Counter rejected;
+        final long retryAfterSeconds;
+
+        ServiceLimit(LeasedTokenBucket bucket, Counter rejected, long retryAfterSeconds) {
+            this.bucket = bucket;
+            this.rejected = rejected;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -1,107 +1,222 @@
 package com.petrichor.loadbalancer.load_balancer.service;
 
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
 import com.petrichor.loadbalancer.load_balancer.config.HealthCheckConfig;
-import com.petrichor.loadbalancer.load_balancer.registry.ServerInfoRegistry;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.registry.ServiceInstanceRegistry;
+import com.petrichor.loadbalancer.load_balancer.util.HealthStatusScanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.net.URI;
 import java.time.Duration;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Active health checks for every instance in the {@link ServiceInstanceRegistry} snapshots.
+ * <p>
+ * Each instance has its own schedule: the next check is due one interval (+/- jitter) after the
+ * previous one finished, and first checks are spread over the first interval, so checks do not fire in
+ * bursts. A frequent tick dispatches due checks, never more than {@code HEALTHCHECK_MAX_CONCURRENCY} at a
+ * time; checks that do not fit stay due for the next tick. An instance changes state only after
+ * {@code HEALTHCHECK_UNHEALTHY_THRESHOLD} / {@code HEALTHCHECK_HEALTHY_THRESHOLD} consecutive results,
+ * and the actuator body is scanned for its {@code status} field as it streams in instead of being parsed.
+ */
 @Service
 public class HealthCheckService {
     private static final Logger logger = LoggerFactory.getLogger(HealthCheckService.class);
 
-    private final ServerInfoRegistry serverInfoRegistry;
-    private final ReactiveDiscoveryClient discoveryClient;
+    private static final Comparator<CheckState> MOST_OVERDUE_FIRST = Comparator.comparingLong(state -> state.nextDueNanos);
+
+    private final ServiceInstanceRegistry serviceInstanceRegistry;
     private final WebClient webClient;
     private final HealthCheckConfig healthCheckConfig;
-    private final ObjectMapper objectMapper = new ObjectMapper(); // For parsing health response
+    private final MeterRegistry meterRegistry;
+    private final long intervalNanos;
+    private final Map<ServerInfo, CheckState> checkStates = new ConcurrentHashMap<>();
+    private final AtomicInteger checksInFlight = new AtomicInteger();
 
-    public HealthCheckService(ServerInfoRegistry serverInfoRegistry,
-                              ReactiveDiscoveryClient discoveryClient,
+    public HealthCheckService(ServiceInstanceRegistry serviceInstanceRegistry,
                               WebClient.Builder webClientBuilder, // Use WebClient.Builder to create a client for health checks
-                              HealthCheckConfig healthCheckConfig) {
-        this.serverInfoRegistry = serverInfoRegistry;
-        this.discoveryClient = discoveryClient;
+                              HealthCheckConfig healthCheckConfig,
+                              MeterRegistry meterRegistry) {
+        this.serviceInstanceRegistry = serviceInstanceRegistry;
         this.webClient = webClientBuilder.build(); // Build a WebClient instance
         this.healthCheckConfig = healthCheckConfig;
+        this.meterRegistry = meterRegistry;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(healthCheckConfig.getIntervalMs(), 1));
     }
 
-    @Scheduled(fixedRateString = "${HEALTHCHECK_INTERVAL_MS:10000}", initialDelayString = "${HEALTHCHECK_INITIAL_DELAY_MS:5000}")
+    @Scheduled(fixedDelayString = "${HEALTHCHECK_TICK_MS:1000}", initialDelayString = "${HEALTHCHECK_INITIAL_DELAY_MS:5000}")
     public void performHealthChecks() {
         if (!healthCheckConfig.isEnabled()) {
             logger.trace("Scheduled health checks are disabled.");
             return;
         }
 
-        logger.debug("Performing scheduled health checks...");
-        discoveryClient.getServices()
-            .flatMap(serviceId -> {
-                // Avoid health checking the discovery-server itself or the api-gateway if listed
-                if ("discovery-server".equalsIgnoreCase(serviceId) || 
-                    "api-gateway".equalsIgnoreCase(serviceId) || 
-                    serviceId.toLowerCase().contains("eureka")) { // General catch for eureka services
-                    return Flux.empty();
+        long now = System.nanoTime();
+        Set<ServerInfo> liveServers = new HashSet<>();
+        List<CheckState> due = new ArrayList<>();
+        for (Map.Entry<String, InstanceView> service : serviceInstanceRegistry.getSnapshots().entrySet()) {
+            String serviceId = service.getKey();
+            // Avoid health checking the discovery-server itself or the api-gateway if listed
+            if ("discovery-server".equalsIgnoreCase(serviceId) ||
+                "api-gateway".equalsIgnoreCase(serviceId) ||
+                serviceId.toLowerCase().contains("eureka")) { // General catch for eureka services
+                continue;
+            }
+            for (ServerInfo server : service.getValue().members()) {
+                liveServers.add(server);
+                CheckState state = checkStates.computeIfAbsent(server, this::newCheckState);
+                if (now - state.nextDueNanos >= 0 && !state.inFlight.get()) {
+                    due.add(state);
                 }
-                return discoveryClient.getInstances(serviceId);
-            })
-            .flatMap(this::checkHealth)
-            .doOnError(error -> logger.error("[HealthCheck] Error during health check processing: {}", error.getMessage(), error))
-            .subscribe(
-                result -> logger.trace("[HealthCheck] Processed health check for: {} - Healthy: {}", result.serverUrl, result.isHealthy),
-                error -> logger.error("[HealthCheck] Unexpected error after health check stream: {}", error.getMessage(), error),
-                () -> logger.debug("Finished performing scheduled health checks.")
-            );
+            }
+        }
+        removeDepartedServers(liveServers);
+
+        int freeSlots = healthCheckConfig.getMaxConcurrency() - checksInFlight.get();
+        if (due.isEmpty() || freeSlots <= 0) {
+            return;
+        }
+        due.sort(MOST_OVERDUE_FIRST);
+        logger.debug("Dispatching {} of {} due health checks ({} in flight)", Math.min(freeSlots, due.size()), due.size(), checksInFlight.get());
+        for (int i = 0; i < due.size() && freeSlots > 0; i++) {
+            CheckState state = due.get(i);
+            if (state.inFlight.compareAndSet(false, true)) {
+                checksInFlight.incrementAndGet();
+                freeSlots--;
+                runCheck(state);
+            }
+        }
     }
 
-    private Mono<HealthCheckResult> checkHealth(ServiceInstance instance) {
-        String serverUrl = instance.getUri().toString();
-        String healthCheckUrl = serverUrl + healthCheckConfig.getPath();
-        logger.trace("[HealthCheck] Checking health for {} at {}", instance.getServiceId(), healthCheckUrl);
+    private void runCheck(CheckState state) {
+        ServerInfo server = state.server;
+        String healthCheckUrl = server.getUrl() + healthCheckConfig.getPath();
+        long startNanos = System.nanoTime();
 
-        return webClient.get()
-            .uri(healthCheckUrl)
-            .retrieve()
-            .bodyToMono(String.class) // Get body as string first
-            .flatMap(body -> {
-                try {
-                    Map<String, Object> healthStatus = objectMapper.readValue(body, new TypeReference<Map<String, Object>>(){});
-                    boolean isUp = "UP".equalsIgnoreCase(String.valueOf(healthStatus.get("status")));
-                    serverInfoRegistry.updateServerHealth(serverUrl, isUp);
-                    return Mono.just(new HealthCheckResult(serverUrl, isUp, "Successfully checked"));
-                } catch (Exception e) {
-                    logger.warn("[HealthCheck] Failed to parse health response from {}: {}. Marking as unhealthy.", healthCheckUrl, e.getMessage());
-                    serverInfoRegistry.updateServerHealth(serverUrl, false);
-                    return Mono.just(new HealthCheckResult(serverUrl, false, "Failed to parse response: " + e.getMessage()));
-                }
-            })
+        checkHealth(healthCheckUrl)
             .timeout(Duration.ofMillis(healthCheckConfig.getTimeoutMs()))
             .onErrorResume(error -> {
-                logger.warn("[HealthCheck] Health check failed for {}: {}. Marking as unhealthy.", healthCheckUrl, error.getMessage());
-                serverInfoRegistry.updateServerHealth(serverUrl, false);
-                return Mono.just(new HealthCheckResult(serverUrl, false, error.getMessage()));
+                logger.debug("[HealthCheck] Health check failed for {}: {}", healthCheckUrl, error.getMessage());
+                return Mono.just(false);
+            })
+            .defaultIfEmpty(false)
+            .doFinally(signalType -> {
+                state.nextDueNanos = System.nanoTime() + jitteredInterval();
+                state.inFlight.set(false);
+                checksInFlight.decrementAndGet();
+            })
+            .subscribe(passed -> {
+                state.timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                applyResult(state, passed, healthCheckUrl);
+            });
+    }
+
+    /**
+     * @return Whether the instance answered 2xx with an {@code UP} status.
+     */
+    private Mono<Boolean> checkHealth(String healthCheckUrl) {
+        return webClient.get()
+            .uri(URI.create(healthCheckUrl))
+            .exchangeToMono(response -> {
+                if (!response.statusCode().is2xxSuccessful()) {
+                    return response.releaseBody().thenReturn(false);
+                }
+                HealthStatusScanner scanner = new HealthStatusScanner(healthCheckConfig.getMaxScannedBytes());
+                return response.bodyToFlux(DataBuffer.class)
+                    .<String>handle((chunk, sink) -> {
+                        String status = scanner.feed(chunk);
+                        DataBufferUtils.release(chunk);
+                        if (status != null) {
+                            sink.next(status);
+                        } else if (scanner.isExhausted()) {
+                            sink.complete();
+                        }
+                    })
+                    .next() // Stop reading as soon as the status is known
+                    .map("UP"::equalsIgnoreCase);
             });
     }
 
-    // Helper class for result logging
-    private static class HealthCheckResult {
-        final String serverUrl;
-        final boolean isHealthy;
-        final String details;
+    private void applyResult(CheckState state, boolean passed, String healthCheckUrl) {
+        ServerInfo server = state.server;
+        if (passed) {
+            state.consecutiveFailures = 0;
+            state.consecutiveSuccesses++;
+            if (!server.isHealthy() && state.consecutiveSuccesses >= healthCheckConfig.getHealthyThreshold()) {
+                server.setHealthy(true);
+                logger.info("[HealthCheck] {} is healthy again after {} passed checks", server.getUrl(), state.consecutiveSuccesses);
+            }
+        } else {
+            state.consecutiveSuccesses = 0;
+            state.consecutiveFailures++;
+            if (server.isHealthy() && state.consecutiveFailures >= healthCheckConfig.getUnhealthyThreshold()) {
+                server.setHealthy(false);
+                logger.warn("[HealthCheck] Marking {} unhealthy after {} failed checks of {}", server.getUrl(), state.consecutiveFailures, healthCheckUrl);
+            }
+        }
+    }
+
+    private CheckState newCheckState(ServerInfo server) {
+        Timer timer = Timer.builder("gateway.healthcheck.latency")
+            .tag("instance", server.getUrl())
+            .register(meterRegistry);
+        // First checks are spread over one interval
+        long firstDue = System.nanoTime() + ThreadLocalRandom.current().nextLong(intervalNanos);
+        return new CheckState(server, timer, firstDue);
+    }
+
+    private void removeDepartedServers(Set<ServerInfo> liveServers) {
+        for (Iterator<Map.Entry<ServerInfo, CheckState>> entries = checkStates.entrySet().iterator(); entries.hasNext(); ) {
+            Map.Entry<ServerInfo, CheckState> entry = entries.next();
+            if (!liveServers.contains(entry.getKey())) {
+                entries.remove();
+                meterRegistry.remove(entry.getValue().timer);
+            }
+        }
+    }
+
+    private long jitteredInterval() {
+        long jitter = intervalNanos * Math.max(healthCheckConfig.getJitterPercent(), 0) / 100;
+        if (jitter <= 0) {
+            return intervalNanos;
+        }
+        return intervalNanos - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1);
+    }
+
+    // Per-instance schedule and threshold counters; the counters are only touched by the instance's single in-flight check
+    private static final class CheckState {
+        final ServerInfo server;
+        final Timer timer;
+        final AtomicBoolean inFlight = new AtomicBoolean(false);
+        volatile long nextDueNanos;
+        int consecutiveSuccesses;
+        int consecutiveFailures;
 
-        HealthCheckResult(String serverUrl, boolean isHealthy, String details) {
-            this.serverUrl = serverUrl;
-            this.isHealthy = isHealthy;
-            this.details = details;
+        CheckState(ServerInfo server, Timer timer, long nextDueNanos) {
+            this.server = server;
+            this.timer = timer;
+            this.nextDueNanos = nextDueNanos;
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.petrichor.loadbalancer.load_balancer.config.HedgingConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.model.TokenBudget;
+import com.petrichor.loadbalancer.load_balancer.routing.Route;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decides which requests are hedged and when. A request is hedgeable if its method is idempotent
+ * ({@code HEDGING_METHODS}) and the route it matched opts in with {@code hedge: true} in {@code gateway.routes}.
+ * If the instance it was sent to has not answered by that instance's recent latency at
+ * {@code HEDGING_PERCENTILE}, a second request may go to another instance; {@link ApiGatewayService}
+ * relays whichever answers first and cancels the other.
+ * <p>
+ * Each service has a {@link TokenBudget}: every hedgeable request earns {@code HEDGING_BUDGET_PERCENT}
+ * of a hedge and every hedge costs a whole one, so hedging cannot add more than that share of load,
+ * even when a whole service slows down and every request would otherwise be hedged.
+ */
+@Service
+public class HedgingService {
+    private static final Logger logger = LoggerFactory.getLogger(HedgingService.class);
+
+    private final HedgingConfig config;
+    private final Set<String> methods;
+    private final long minDelayNanos;
+    private final Map<String, TokenBudget> budgets = new ConcurrentHashMap<>();
+    private final Counter hedgesSent;
+    private final Counter hedgesDenied;
+    private final Counter hedgesWon;
+
+    public HedgingService(HedgingConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.methods = new HashSet<>();
+        for (String method : config.getMethods().split(",")) {
+            if (!method.isBlank()) {
+                methods.add(method.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(config.getMinDelayMs(), 1));
+        this.hedgesSent = Counter.builder("gateway.hedging.hedges").tag("result", "sent").register(meterRegistry);
+        this.hedgesDenied = Counter.builder("gateway.hedging.hedges").tag("result", "budget-exhausted").register(meterRegistry);
+        this.hedgesWon = Counter.builder("gateway.hedging.hedges").tag("result", "won").register(meterRegistry);
+        if (config.isEnabled()) {
+            logger.info("[HedgingService] Hedging {} on routes with hedge: true at p{} (budget {}%)", methods,
+                    config.getPercentile() * 100, config.getBudgetPercent());
+        }
+    }
+
+    /**
+     * Called once per request after its first instance has been chosen. Hedgeable requests also earn
+     * hedging budget here, whether or not they end up hedged.
+     *
+     * @param route The route the request matched.
+     * @return How long to wait for {@code primary} before hedging, or {@code null} if the request is not hedged.
+     */
+    public Duration hedgeDelay(Route route, String method, ServerInfo primary) {
+        if (!config.isEnabled() || !route.isHedge() || !methods.contains(method.toUpperCase(Locale.ROOT))) {
+            return null;
+        }
+        budgetOf(route.getServiceId()).deposit();
+
+        if (primary.getLatencySampleCount() < config.getMinSamples()) {
+            return null;
+        }
+        long delayNanos = Math.max(primary.getLatencyPercentileNanos(config.getPercentile()), minDelayNanos);
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Takes one hedge from the service's budget.
+     *
+     * @return Whether the hedge may be sent.
+     */
+    public boolean tryAcquireHedge(String serviceName) {
+        if (budgetOf(serviceName).tryWithdraw()) {
+            hedgesSent.increment();
+            return true;
+        }
+        hedgesDenied.increment();
+        return false;
+    }
+
+    /**
+     * Called when a hedge answered before the request it was hedging.
+     */
+    public void onHedgeWon() {
+        hedgesWon.increment();
+    }
+
+    private TokenBudget budgetOf(String serviceName) {
+        return budgets.computeIfAbsent(serviceName,
+                name -> new TokenBudget(config.getBudgetPercent() / 100.0, config.getBudgetBurst()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
+import com.petrichor.loadbalancer.load_balancer.config.OutlierDetectionConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.registry.ServiceInstanceRegistry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Passive outlier detection from the results of real proxied calls, complementing the periodic
+ * {@link HealthCheckService} poll.
+ * <ul>
+ *     <li>Consecutive failures: an instance whose last {@code OUTLIER_CONSECUTIVE_FAILURES} calls all failed
+ *     (5xx or transport error) is ejected on the spot, by the request that observed the last failure.</li>
+ *     <li>Success rate: every interval, instances with enough calls are compared with their peers, and those
+ *     more than {@code OUTLIER_SUCCESS_RATE_STDEV_FACTOR} standard deviations below the mean are ejected.</li>
+ * </ul>
+ * An ejection lasts the base ejection time doubled for every recent prior ejection (capped), and is
+ * lifted by the interval sweep. At most {@code OUTLIER_MAX_EJECTION_PERCENT} of a service's instances are
+ * ejected at a time, and never its only instance.
+ */
+@Service
+public class OutlierDetectionService {
+    private static final Logger logger = LoggerFactory.getLogger(OutlierDetectionService.class);
+
+    private final OutlierDetectionConfig config;
+    private final ServiceInstanceRegistry serviceInstanceRegistry;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final Counter consecutiveFailureEjections;
+    private final Counter successRateEjections;
+
+    public OutlierDetectionService(OutlierDetectionConfig config,
+                                   ServiceInstanceRegistry serviceInstanceRegistry,
+                                   MeterRegistry meterRegistry) {
+        this.config = config;
+        this.serviceInstanceRegistry = serviceInstanceRegistry;
+        this.baseEjectionNanos = TimeUnit.MILLISECONDS.toNanos(config.getBaseEjectionMs());
+        this.maxEjectionNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxEjectionMs());
+        this.consecutiveFailureEjections = Counter.builder("gateway.outlier.ejections")
+                .tag("reason", "consecutive-failures")
+                .register(meterRegistry);
+        this.successRateEjections = Counter.builder("gateway.outlier.ejections")
+                .tag("reason", "success-rate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called after a call's outcome has been recorded on the server.
+     */
+    public void onCallCompleted(String serviceName, ServerInfo server, boolean failed) {
+        if (!failed || !config.isEnabled() || server.isEjected()
+                || server.getConsecutiveFailures() < config.getConsecutiveFailures()) {
+            return;
+        }
+        InstanceView view = serviceInstanceRegistry.getSnapshot(serviceName);
+        if (view != null && tryEject(serviceName, view, server)) {
+            consecutiveFailureEjections.increment();
+            logger.warn("[OutlierDetection] Ejected {} of service {} after {} consecutive failures",
+                    server.getUrl(), serviceName, config.getConsecutiveFailures());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${OUTLIER_DETECTION_INTERVAL_MS:10000}", initialDelayString = "${OUTLIER_DETECTION_INTERVAL_MS:10000}")
+    public void sweep() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Map.Entry<String, InstanceView> entry : serviceInstanceRegistry.getSnapshots().entrySet()) {
+            sweepService(entry.getKey(), entry.getValue(), now);
+        }
+    }
+
+    private void sweepService(String serviceName, InstanceView view, long now) {
+        ServerInfo[] members = view.members();
+        long[] calls = new long[members.length];
+        long[] failures = new long[members.length];
+
+        for (int i = 0; i < members.length; i++) {
+            ServerInfo member = members[i];
+            calls[i] = member.drainIntervalCalls();
+            failures[i] = member.drainIntervalFailures();
+            if (member.isEjected()) {
+                if (now - member.getEjectedUntilNanos() >= 0) {
+                    member.uneject();
+                    logger.info("[OutlierDetection] Returned {} of service {} to rotation", member.getUrl(), serviceName);
+                }
+            } else if (member.getEjectionCount() > 0) {
+                // Each interval without an ejection shortens the next one again
+                synchronized (this) {
+                    member.setEjectionCount(member.getEjectionCount() - 1);
+                }
+            }
+        }
+
+        // Success-rate outliers among the instances with enough traffic to judge
+        int qualified = 0;
+        double sum = 0;
+        for (int i = 0; i < members.length; i++) {
+            if (!members[i].isEjected() && calls[i] >= config.getSuccessRateMinRequests()) {
+                qualified++;
+                sum += successRate(calls[i], failures[i]);
+            }
+        }
+        if (qualified < Math.max(config.getSuccessRateMinHosts(), 2)) {
+            return;
+        }
+        double mean = sum / qualified;
+        double squaredDeviations = 0;
+        for (int i = 0; i < members.length; i++) {
+            if (!members[i].isEjected() && calls[i] >= config.getSuccessRateMinRequests()) {
+                double deviation = successRate(calls[i], failures[i]) - mean;
+                squaredDeviations += deviation * deviation;
+            }
+        }
+        double threshold = mean - config.getSuccessRateStdevFactor() * Math.sqrt(squaredDeviations / qualified);
+        for (int i = 0; i < members.length; i++) {
+            ServerInfo member = members[i];
+            if (member.isEjected() || calls[i] < config.getSuccessRateMinRequests()) {
+                continue;
+            }
+            double rate = successRate(calls[i], failures[i]);
+            if (rate < threshold && tryEject(serviceName, view, member)) {
+                successRateEjections.increment();
+                logger.warn("[OutlierDetection] Ejected {} of service {}: success rate {} below threshold {} (peer mean {})",
+                        member.getUrl(), serviceName, String.format("%.3f", rate), String.format("%.3f", threshold), String.format("%.3f", mean));
+            }
+        }
+    }
+
+    /**
+     * Ejects the server unless that would exceed the service's maximum ejected share.
+     * Synchronized so that concurrent ejections cannot jointly overshoot the cap.
+     */
+    private synchronized boolean tryEject(String serviceName, InstanceView view, ServerInfo server) {
+        if (server.isEjected()) {
+            return false;
+        }
+        ServerInfo[] members = view.members();
+        int ejected = 0;
+        for (ServerInfo member : members) {
+            if (member.isEjected()) {
+                ejected++;
+            }
+        }
+        if ((ejected + 1) * 100L > (long) config.getMaxEjectionPercent() * members.length) {
+            logger.debug("[OutlierDetection] Not ejecting {} of service {}: {} of {} instances already ejected",
+                    server.getUrl(), serviceName, ejected, members.length);
+            return false;
+        }
+        int priorEjections = server.getEjectionCount();
+        long duration = baseEjectionNanos << Math.min(priorEjections, 20);
+        if (duration <= 0 || duration > maxEjectionNanos) {
+            duration = maxEjectionNanos;
+        }
+        server.setEjectionCount(priorEjections + 1);
+        server.eject(System.nanoTime() + duration);
+        return true;
+    }
+
+    private static double successRate(long calls, long failures) {
+        return (double) (calls - failures) / calls;
+    }
+}
@@ -0,0 +1,354 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.petrichor.loadbalancer.load_balancer.accesslog.AccessLogRecord;
+import com.petrichor.loadbalancer.load_balancer.accesslog.AccessLogRecord.CacheResult;
+import com.petrichor.loadbalancer.load_balancer.cache.CacheControlDirectives;
+import com.petrichor.loadbalancer.load_balancer.cache.CacheFillResult;
+import com.petrichor.loadbalancer.load_balancer.cache.CacheKeyGenerator;
+import com.petrichor.loadbalancer.load_balancer.cache.CachedResponse;
+import com.petrichor.loadbalancer.load_balancer.cache.CachedResponseCodec;
+import com.petrichor.loadbalancer.load_balancer.cache.LocalResponseCache;
+import com.petrichor.loadbalancer.load_balancer.cache.RequestCoalescer;
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Two-level (in-process L1, Redis L2) response cache for idempotent gateway requests.
+ * <p>
+ * Entries have a soft and a hard TTL. Until the soft TTL they are served as-is. Between the soft and
+ * the hard TTL (the Redis key expiry) they are still served immediately, while a single background
+ * refresh fetches a new copy and rewrites both levels. Only after the hard TTL does a caller wait for
+ * upstream, and concurrent callers for the same key share that fetch through {@link RequestCoalescer}.
+ * <p>
+ * The cache follows HTTP semantics for a shared cache: request and response {@code Cache-Control}
+ * are honoured, a response's {@code max-age}/{@code s-maxage} shortens its TTLs, responses that
+ * {@code Vary} are stored per variant, and {@code If-None-Match} is answered with 304 from the cache.
+ */
+@Service
+public class ResponseCacheService {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheService.class);
+    private static final DataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
+
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final CachedResponseCodec codec;
+    private final LocalResponseCache localResponseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final CacheKeyGenerator keyGenerator;
+    private final Duration cacheTtl;
+    private final long softTtlMillis;
+    private final long maxBodyBytes;
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+
+    // Base key -> header names the upstream varies on, learned from the responses themselves
+    private final Cache<String, List<String>> varyIndex;
+
+    private final Counter staleServedCounter;
+    private final Counter refreshFailedCounter;
+    private final Counter notModifiedCounter;
+
+    public ResponseCacheService(LoadBalancerConfig config,
+                                ReactiveRedisTemplate<String, byte[]> cacheRedisTemplate,
+                                CachedResponseCodec codec,
+                                LocalResponseCache localResponseCache,
+                                RequestCoalescer requestCoalescer,
+                                CacheKeyGenerator keyGenerator,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = cacheRedisTemplate;
+        this.codec = codec;
+        this.localResponseCache = localResponseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.keyGenerator = keyGenerator;
+        this.cacheTtl = Duration.ofSeconds(config.getCacheTtlSeconds() > 0 ? config.getCacheTtlSeconds() : 60); // Default to 60s, get from config
+        this.softTtlMillis = Math.min(Duration.ofSeconds(Math.max(config.getCacheSoftTtlSeconds(), 0)).toMillis(), cacheTtl.toMillis());
+        this.maxBodyBytes = config.getCacheMaxBodyBytes();
+        this.varyIndex = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .build();
+
+        this.staleServedCounter = Counter.builder("gateway.cache.stale.served")
+                .description("Cached responses served past their soft TTL while a background refresh runs")
+                .register(meterRegistry);
+        this.refreshFailedCounter = Counter.builder("gateway.cache.refresh.failed")
+                .register(meterRegistry);
+        this.notModifiedCounter = Counter.builder("gateway.cache.not.modified")
+                .description("Conditional requests answered with 304 from the cache")
+                .register(meterRegistry);
+
+        logger.info("[ResponseCacheService] Initialized with soft TTL: {}ms, hard TTL: {}s, max cacheable body: {} bytes",
+                softTtlMillis, cacheTtl.getSeconds(), maxBodyBytes);
+    }
+
+    /**
+     * Serves a request from the cache, or fetches it through {@code upstream} and caches the result.
+     *
+     * @param maxTtl   Cap on how long a fetched response is cached, or {@code null} for the configured TTL.
+     * @param upstream Performs the upstream call with the given request headers; also used for background refreshes.
+     * @return The cached (200 or 304) or freshly fetched response. How it was served is noted in the request's access-log record.
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getOrFetch(String serviceName, String path, String query, String httpMethod,
+                                                             HttpHeaders requestHeaders, Duration maxTtl,
+                                                             Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+        return Mono.deferContextual(context -> lookup(serviceName, path, query, httpMethod, requestHeaders, maxTtl, upstream,
+                AccessLogRecord.from(context)));
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> lookup(String serviceName, String path, String query, String httpMethod,
+                                                          HttpHeaders requestHeaders, Duration maxTtl,
+                                                          Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream,
+                                                          AccessLogRecord accessLog) {
+        long ttlMillis = maxTtl != null ? maxTtl.toMillis() : cacheTtl.toMillis();
+        CacheControlDirectives requestCacheControl = CacheControlDirectives.parse(requestHeaders.getCacheControl());
+        if (requestCacheControl.isNoStore()) {
+            // The client asked for the exchange to stay out of every cache
+            recordCacheResult(accessLog, CacheResult.BYPASS);
+            return upstream.apply(requestHeaders);
+        }
+
+        String baseKey = keyGenerator.generate(serviceName, path, query, httpMethod, requestHeaders);
+        String cacheKey = keyGenerator.variantKey(baseKey, varyIndex.getIfPresent(baseKey), requestHeaders);
+
+        if (requestCacheControl.isNoCache()) {
+            // The client insists on a revalidated response; skip the lookup but still store the result
+            recordCacheResult(accessLog, CacheResult.MISS);
+            return fetch(baseKey, cacheKey, requestHeaders, ttlMillis, upstream);
+        }
+
+        CachedResponse localHit = localResponseCache.get(cacheKey);
+        if (localHit != null) {
+            recordCacheResult(accessLog, hitResult(localHit, CacheResult.LOCAL_HIT));
+            return Mono.just(serveCached(baseKey, cacheKey, localHit, requestHeaders, ttlMillis, upstream));
+        }
+
+        return readRedisCache(cacheKey)
+                .map(cachedResponse -> {
+                    recordCacheResult(accessLog, hitResult(cachedResponse, CacheResult.REDIS_HIT));
+                    localResponseCache.put(cacheKey, cachedResponse);
+                    return serveCached(baseKey, cacheKey, cachedResponse, requestHeaders, ttlMillis, upstream);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    recordCacheResult(accessLog, CacheResult.MISS);
+                    return fetch(baseKey, cacheKey, requestHeaders, ttlMillis, upstream);
+                }));
+    }
+
+    private static CacheResult hitResult(CachedResponse cachedResponse, CacheResult fresh) {
+        return cachedResponse.isStale(System.currentTimeMillis()) ? CacheResult.STALE : fresh;
+    }
+
+    private static void recordCacheResult(AccessLogRecord accessLog, CacheResult result) {
+        if (accessLog != null) {
+            accessLog.setCacheResult(result);
+        }
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> fetch(String baseKey, String cacheKey, HttpHeaders requestHeaders, long ttlMillis,
+                                                          Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+        return fill(baseKey, cacheKey, requestHeaders, ttlMillis, upstream)
+                .flatMap(fill -> {
+                    if (fill.isBuffered()) {
+                        CachedResponse filled = fill.getBuffered();
+                        // A fill that discovered Vary stored a variant; it is only ours if our headers map to it too
+                        if (cacheKey.equals(fill.getCacheKey())
+                                || fill.getCacheKey().equals(keyGenerator.variantKey(baseKey, filled.getVaryHeaderNames(), requestHeaders))) {
+                            return Mono.just(respond(filled, requestHeaders));
+                        }
+                        return upstream.apply(requestHeaders);
+                    }
+                    ResponseEntity<Flux<DataBuffer>> stream = fill.claimStream();
+                    if (stream != null) {
+                        return Mono.just(stream);
+                    }
+                    // The uncacheable stream went to another caller; this one needs its own upstream call. Joiners only
+                    // learn that a response is uncacheable from its headers, so they start their calls that much later:
+                    // the price of N concurrent misses of a cacheable response costing a single upstream call.
+                    return upstream.apply(requestHeaders);
+                });
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> serveCached(String baseKey, String cacheKey, CachedResponse cachedResponse, HttpHeaders requestHeaders, long ttlMillis,
+                                                         Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+        if (cachedResponse.isStale(System.currentTimeMillis())) {
+            staleServedCounter.increment();
+            refreshInBackground(baseKey, cacheKey, requestHeaders, ttlMillis, upstream);
+        }
+        return respond(cachedResponse, requestHeaders);
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> respond(CachedResponse cachedResponse, HttpHeaders requestHeaders) {
+        if (cachedResponse.matchesAny(requestHeaders.getIfNoneMatch())) {
+            notModifiedCounter.increment();
+            return new ResponseEntity<>(Flux.empty(), cachedResponse.getNotModifiedHeaders(), HttpStatus.NOT_MODIFIED);
+        }
+        return new ResponseEntity<>(
+                Flux.just(BUFFER_FACTORY.wrap(cachedResponse.getBody())),
+                cachedResponse.getHeaders(),
+                HttpStatusCode.valueOf(cachedResponse.getStatus()));
+    }
+
+    /**
+     * Starts at most one background refresh per key on this node. It goes through the coalescer,
+     * so callers that miss outright while it runs share its result rather than issuing their own.
+     */
+    private void refreshInBackground(String baseKey, String cacheKey, HttpHeaders requestHeaders, long ttlMillis,
+                                     Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+        if (!refreshesInFlight.add(cacheKey)) {
+            return;
+        }
+        logger.debug("[ResponseCacheService] Serving stale entry for key {} and refreshing it in the background", cacheKey);
+        fill(baseKey, cacheKey, requestHeaders, ttlMillis, upstream)
+                .flatMap(this::discardStream)
+                .doFinally(signalType -> refreshesInFlight.remove(cacheKey))
+                .subscribe(
+                        null,
+                        error -> {
+                            refreshFailedCounter.increment();
+                            logger.warn("[ResponseCacheService] Background refresh failed for key {}: {}. Keeping the stale entry.", cacheKey, error.getMessage());
+                        });
+    }
+
+    private Mono<CacheFillResult> fill(String baseKey, String cacheKey, HttpHeaders requestHeaders, long ttlMillis,
+                                       Function<HttpHeaders, Mono<ResponseEntity<Flux<DataBuffer>>>> upstream) {
+        return requestCoalescer.execute(cacheKey,
+                // Fills always ask for the full representation; conditional requests are answered by the cache
+                () -> upstream.apply(withoutConditionalHeaders(requestHeaders))
+                        .flatMap(responseFromService -> cacheIfEligible(baseKey, requestHeaders, ttlMillis, responseFromService)),
+                // Another replica's copy only counts if it is fresher than what made us refresh
+                () -> readRedisCache(cacheKey)
+                        .filter(cached -> !cached.isStale(System.currentTimeMillis()))
+                        .map(cached -> CacheFillResult.buffered(cacheKey, cached)),
+                // An uncacheable stream whose callers all went away would otherwise hold its upstream connection
+                fill -> discardStream(fill).subscribe(
+                        null,
+                        error -> logger.debug("[ResponseCacheService] Failed to release an unclaimed response for key {}: {}", cacheKey, error.getMessage())));
+    }
+
+    private Mono<Void> discardStream(CacheFillResult fill) {
+        ResponseEntity<Flux<DataBuffer>> stream = fill.claimStream();
+        if (stream == null) {
+            return Mono.empty();
+        }
+        logger.debug("[ResponseCacheService] Releasing an uncacheable {} response nobody relays", stream.getStatusCode());
+        return bodyOf(stream).doOnNext(DataBufferUtils::release).then();
+    }
+
+    // A corrupt entry is deleted and reads as a miss, so the response is fetched and stored afresh
+    private Mono<CachedResponse> readRedisCache(String cacheKey) {
+        return redisTemplate.opsForValue().get(cacheKey)
+                .flatMap(value -> {
+                    CachedResponse cached = codec.decode(value);
+                    return cached != null ? Mono.just(cached) : redisTemplate.delete(cacheKey).then(Mono.<CachedResponse>empty());
+                });
+    }
+
+    /**
+     * Buffers and caches a 200/203/204 response that a shared cache may store and whose declared size is within
+     * the cacheable limit. Anything else is relayed as a stream without being buffered, including bodies of
+     * unknown length (chunked), which could otherwise grow without bound while being buffered.
+     */
+    private Mono<CacheFillResult> cacheIfEligible(String baseKey, HttpHeaders requestHeaders, long ttlMillis, ResponseEntity<Flux<DataBuffer>> response) {
+        HttpHeaders responseHeaders = response.getHeaders();
+        CacheControlDirectives cacheControl = CacheControlDirectives.parse(responseHeaders.getCacheControl());
+        List<String> vary = responseHeaders.getVary();
+        long contentLength = responseHeaders.getContentLength();
+        long freshnessSeconds = cacheControl.getSharedFreshnessSeconds();
+
+        int status = response.getStatusCode().value();
+        boolean storable = isStorableStatus(status)
+                && (contentLength >= 0 || status == HttpStatus.NO_CONTENT.value()) // 204 has no body to measure
+                && contentLength <= maxBodyBytes
+                && !cacheControl.isNoStore()
+                && !cacheControl.isNoCache()
+                && (!cacheControl.isPrivate() || keyGenerator.isUserScoped())
+                // Unless the key is per identity, one user's authorized response would be served to others
+                && (!requestHeaders.containsKey(HttpHeaders.AUTHORIZATION) || keyGenerator.isUserScoped()
+                        || cacheControl.allowsSharedCachingWithAuthorization())
+                && freshnessSeconds != 0
+                && !vary.contains("*");
+        if (!storable) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[ResponseCacheService] Not caching response for key {} (status {}, length {}, cache-control {}). Streaming through.",
+                        baseKey, response.getStatusCode(), contentLength, responseHeaders.getCacheControl());
+            }
+            return Mono.just(CacheFillResult.streaming(response));
+        }
+
+        long hardTtlMillis = freshnessSeconds > 0 ? Math.min(ttlMillis, freshnessSeconds * 1000) : ttlMillis;
+        long entrySoftTtlMillis = Math.min(softTtlMillis, hardTtlMillis);
+        String storeKey = baseKey;
+        if (!vary.isEmpty()) {
+            varyIndex.put(baseKey, List.copyOf(vary));
+            storeKey = keyGenerator.variantKey(baseKey, vary, requestHeaders);
+        }
+        String cacheKey = storeKey;
+
+        return DataBufferUtils.join(bodyOf(response))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> {
+                    logger.debug("[ResponseCacheService] Caching response for key {} with TTL {}ms", cacheKey, hardTtlMillis);
+                    long now = System.currentTimeMillis();
+                    CachedResponse cachedResponse = new CachedResponse(response.getStatusCode().value(), bytes, responseHeaders, null,
+                            now, now + entrySoftTtlMillis, now + hardTtlMillis);
+                    localResponseCache.put(cacheKey, cachedResponse);
+                    CacheFillResult filled = CacheFillResult.buffered(cacheKey, cachedResponse);
+                    byte[] envelope = codec.encode(cachedResponse);
+                    if (envelope == null) {
+                        return Mono.just(filled); // Served, and kept locally, but not shared through Redis
+                    }
+                    return redisTemplate.opsForValue().set(cacheKey, envelope, Duration.ofMillis(hardTtlMillis))
+                            .thenReturn(filled);
+                });
+    }
+
+    private static boolean isStorableStatus(int status) {
+        return status == HttpStatus.OK.value()
+                || status == HttpStatus.NON_AUTHORITATIVE_INFORMATION.value()
+                || status == HttpStatus.NO_CONTENT.value();
+    }
+
+    private static HttpHeaders withoutConditionalHeaders(HttpHeaders requestHeaders) {
+        if (!requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) && !requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)) {
+            return requestHeaders;
+        }
+        HttpHeaders unconditional = new HttpHeaders();
+        unconditional.putAll(requestHeaders);
+        unconditional.remove(HttpHeaders.IF_NONE_MATCH);
+        unconditional.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        return unconditional;
+    }
+
+    private static Flux<DataBuffer> bodyOf(ResponseEntity<Flux<DataBuffer>> response) {
+        return response.getBody() != null ? response.getBody() : Flux.empty();
+    }
+}
@@ -0,0 +1,78 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.petrichor.loadbalancer.load_balancer.config.RetryBudgetConfig;
+import com.petrichor.loadbalancer.load_balancer.model.TokenBudget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-service retry budgets. Every forwarded request earns {@code RETRY_BUDGET_PERCENT} of a retry and
+ * every retry costs a whole one, so when a service fails wholesale the gateway adds at most that share
+ * of extra load instead of multiplying its traffic by the retry attempts.
+ * <p>
+ * Retries are counted per service in {@code gateway.retry.budget{service, result=allowed|denied}}.
+ */
+@Service
+public class RetryBudgetService {
+
+    private final RetryBudgetConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ServiceBudget> budgets = new ConcurrentHashMap<>();
+
+    public RetryBudgetService(RetryBudgetConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Called once per forwarded request, before any retry.
+     */
+    public void onRequest(String serviceName) {
+        budgetOf(serviceName).tokens.deposit();
+    }
+
+    /**
+     * Takes one retry from the service's budget.
+     *
+     * @return Whether the retry may be sent.
+     */
+    public boolean tryAcquireRetry(String serviceName) {
+        ServiceBudget budget = budgetOf(serviceName);
+        if (!config.isEnabled() || budget.tokens.tryWithdraw()) {
+            budget.allowed.increment();
+            return true;
+        }
+        budget.denied.increment();
+        return false;
+    }
+
+    private ServiceBudget budgetOf(String serviceName) {
+        ServiceBudget budget = budgets.get(serviceName);
+        return budget != null ? budget : budgets.computeIfAbsent(serviceName, this::newBudget);
+    }
+
+    private ServiceBudget newBudget(String serviceName) {
+        return new ServiceBudget(
+                new TokenBudget(config.getPercent() / 100.0, config.getBurst()),
+                Counter.builder("gateway.retry.budget").tag("service", serviceName).tag("result", "allowed").register(meterRegistry),
+                Counter.builder("gateway.retry.budget").tag("service", serviceName).tag("result", "denied").register(meterRegistry));
+    }
+
+    private static final class ServiceBudget {
+        final TokenBudget tokens;
+        final Counter allowed;
+        final Counter denied;
+
+        ServiceBudget(TokenBudget tokens, Counter allowed, Counter denied) {
+            this.tokens = tokens;
+            this.allowed = allowed;
+            this.denied = denied;
+        }
+    }
+}
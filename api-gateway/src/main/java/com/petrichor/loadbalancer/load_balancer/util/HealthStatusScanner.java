@@ -0,0 +1,108 @@
+package com.petrichor.loadbalancer.load_balancer.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Incremental scanner that extracts the first {@code "status": "<value>"} pair from a JSON health
+ * response (Spring Boot actuator writes the aggregate status first) as body chunks arrive, so a health
+ * check can stop reading after a few dozen bytes instead of buffering and parsing the whole document.
+ * Not thread-safe; use one instance per response.
+ */
+public final class HealthStatusScanner {
+    private static final byte[] KEY = "\"status\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    private enum Phase { KEY, COLON, VALUE_START, VALUE }
+
+    private final int maxScannedBytes;
+    private Phase phase = Phase.KEY;
+    private int keyMatched;
+    private final byte[] value = new byte[MAX_VALUE_LENGTH];
+    private int valueLength;
+    private int scannedBytes;
+
+    /**
+     * @param maxScannedBytes After this many bytes without a status the scanner gives up.
+     */
+    public HealthStatusScanner(int maxScannedBytes) {
+        this.maxScannedBytes = maxScannedBytes;
+    }
+
+    /**
+     * Consumes a chunk without changing its read position.
+     *
+     * @return The status value once it has been read completely, otherwise {@code null}.
+     */
+    public String feed(DataBuffer chunk) {
+        int end = chunk.writePosition();
+        for (int i = chunk.readPosition(); i < end; i++) {
+            if (++scannedBytes > maxScannedBytes) {
+                return null;
+            }
+            String status = accept(chunk.getByte(i));
+            if (status != null) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the byte budget is used up without a status having been found.
+     */
+    public boolean isExhausted() {
+        return scannedBytes > maxScannedBytes;
+    }
+
+    private String accept(byte b) {
+        switch (phase) {
+            case KEY:
+                if (b == KEY[keyMatched]) {
+                    if (++keyMatched == KEY.length) {
+                        phase = Phase.COLON;
+                    }
+                } else {
+                    keyMatched = b == KEY[0] ? 1 : 0;
+                }
+                return null;
+            case COLON:
+                if (b == ':') {
+                    phase = Phase.VALUE_START;
+                } else if (!isWhitespace(b)) {
+                    resetToKey(b);
+                }
+                return null;
+            case VALUE_START:
+                if (b == '"') {
+                    phase = Phase.VALUE;
+                    valueLength = 0;
+                } else if (!isWhitespace(b)) {
+                    resetToKey(b);
+                }
+                return null;
+            case VALUE:
+                if (b == '"') {
+                    return new String(value, 0, valueLength, StandardCharsets.US_ASCII);
+                }
+                if (valueLength == MAX_VALUE_LENGTH) {
+                    resetToKey(b);
+                } else {
+                    value[valueLength++] = b;
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private void resetToKey(byte b) {
+        phase = Phase.KEY;
+        keyMatched = b == KEY[0] ? 1 : 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
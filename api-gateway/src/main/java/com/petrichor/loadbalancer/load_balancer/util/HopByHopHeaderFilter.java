@@ -0,0 +1,76 @@
+package com.petrichor.loadbalancer.load_balancer.util;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Strips connection-scoped (hop-by-hop) headers before a message is relayed to the next hop,
+ * as required of proxies by RFC 9110 section 7.6.1.
+ */
+public final class HopByHopHeaderFilter {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection",
+            "keep-alive",
+            "proxy-authenticate",
+            "proxy-authorization",
+            "proxy-connection",
+            "te",
+            "trailer",
+            "transfer-encoding",
+            "upgrade"
+    );
+
+    private HopByHopHeaderFilter() {
+    }
+
+    /**
+     * Copies the headers of an incoming client request for forwarding to an upstream instance.
+     * The Host header is dropped as well so that WebClient derives it from the target URL.
+     *
+     * @param source The headers received from the client.
+     * @return A new, filtered header set.
+     */
+    public static HttpHeaders filterRequestHeaders(HttpHeaders source) {
+        HttpHeaders filtered = filter(source);
+        filtered.remove(HttpHeaders.HOST);
+        return filtered;
+    }
+
+    /**
+     * Copies the headers of an upstream response for relaying to the client.
+     *
+     * @param source The headers received from the upstream instance.
+     * @return A new, filtered header set.
+     */
+    public static HttpHeaders filterResponseHeaders(HttpHeaders source) {
+        return filter(source);
+    }
+
+    private static HttpHeaders filter(HttpHeaders source) {
+        HttpHeaders filtered = new HttpHeaders();
+        if (source == null || source.isEmpty()) {
+            return filtered;
+        }
+        List<String> connectionTokens = source.getConnection();
+        source.forEach((name, values) -> {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (!HOP_BY_HOP_HEADERS.contains(lowerName) && !containsIgnoreCase(connectionTokens, lowerName)) {
+                filtered.addAll(name, values);
+            }
+        });
+        return filtered;
+    }
+
+    private static boolean containsIgnoreCase(List<String> tokens, String lowerName) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.get(i).trim().equalsIgnoreCase(lowerName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
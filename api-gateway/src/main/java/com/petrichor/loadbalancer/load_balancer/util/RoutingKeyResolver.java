@@ -0,0 +1,95 @@
+package com.petrichor.loadbalancer.load_balancer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+/**
+ * Derives the routing hash that hash-based selectors route on, from an ordered list of key sources
+ * ({@code LOADBALANCER_HASH_KEY}); the first source present on the request wins. Supported sources:
+ * <ul>
+ *     <li>{@code header:<Name>} - the value of a request header, e.g. the {@code X-User-Id} injected by the authentication filter</li>
+ *     <li>{@code path} - the request path within the service, without the query string</li>
+ * </ul>
+ * The hash is computed straight from the request's strings, without building an intermediate key.
+ */
+@Component
+public class RoutingKeyResolver {
+    private static final Logger logger = LoggerFactory.getLogger(RoutingKeyResolver.class);
+
+    /** Returned when none of the configured sources is present on the request. */
+    public static final long NO_KEY = 0L;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String[] headerNames; // null entry = path
+
+    public RoutingKeyResolver(LoadBalancerConfig config) {
+        List<String> sources = new ArrayList<>();
+        for (String rawSource : config.getHashKey().split(",")) {
+            String source = rawSource.trim();
+            if (source.isEmpty()) {
+                continue;
+            }
+            if (source.toLowerCase(Locale.ROOT).startsWith("header:")) {
+                sources.add(source.substring("header:".length()).trim());
+            } else if (source.equalsIgnoreCase("path")) {
+                sources.add(null);
+            } else {
+                throw new IllegalArgumentException("Unknown hash key source: " + source);
+            }
+        }
+        this.headerNames = sources.toArray(new String[0]);
+        logger.info("[RoutingKeyResolver] Hash-based routing keys from: {}", config.getHashKey());
+    }
+
+    /**
+     * @param pathAndQuery The request path within the service, optionally followed by '?' and the query.
+     * @return A non-zero hash of the first available key source, or {@link #NO_KEY}.
+     */
+    public long resolve(String pathAndQuery, HttpHeaders headers) {
+        for (String headerName : headerNames) {
+            if (headerName == null) {
+                int queryStart = pathAndQuery.indexOf('?');
+                return nonZero(hash(pathAndQuery, 0, queryStart >= 0 ? queryStart : pathAndQuery.length(), FNV_OFFSET_BASIS));
+            }
+            String value = headers.getFirst(headerName);
+            if (value != null && !value.isEmpty()) {
+                return nonZero(hash(value, 0, value.length(), FNV_OFFSET_BASIS));
+            }
+        }
+        return NO_KEY;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of {@code value[start, end)}, followed by the MurmurHash3
+     * finalizer so that short, similar keys (user ids, URLs) still spread over all bits.
+     *
+     * @param seed Starting state; different seeds give independent hash functions.
+     */
+    public static long hash(CharSequence value, int start, int end, long seed) {
+        long hash = seed;
+        for (int i = start; i < end; i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long nonZero(long hash) {
+        return hash == NO_KEY ? 1L : hash;
+    }
+}
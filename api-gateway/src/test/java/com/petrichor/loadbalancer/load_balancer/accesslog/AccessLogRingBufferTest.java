@@ -0,0 +1,121 @@
+package com.petrichor.loadbalancer.load_balancer.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class AccessLogRingBufferTest {
+
+    private static AccessLogRecord record(String path) {
+        return new AccessLogRecord("GET", path);
+    }
+
+    @Test
+    void rejectsRecordsOnceFullAndAcceptsAgainAfterDrain() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(record("/" + i)));
+        }
+        assertFalse(buffer.offer(record("/overflow")));
+
+        List<AccessLogRecord> drained = new ArrayList<>();
+        assertEquals(1, buffer.drain(drained::add, 1));
+        assertTrue(buffer.offer(record("/4")));
+        assertFalse(buffer.offer(record("/overflow")));
+    }
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(5);
+        int accepted = 0;
+        while (buffer.offer(record("/" + accepted))) {
+            accepted++;
+        }
+        assertEquals(8, accepted);
+    }
+
+    @Test
+    void drainsInOrderAcrossWrapAround() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        List<String> drained = new ArrayList<>();
+        int next = 0;
+        // Three laps of the ring, never filling it completely
+        for (int lap = 0; lap < 6; lap++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(record("/" + next++)));
+            }
+            assertEquals(3, buffer.drain(r -> drained.add(r.getPath()), Integer.MAX_VALUE));
+        }
+        assertEquals(next, drained.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals("/" + i, drained.get(i));
+        }
+    }
+
+    @Test
+    void drainHonoursMaxAndEmptyBuffer() {
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        AccessLogRecord first = record("/first");
+        buffer.offer(first);
+        buffer.offer(record("/second"));
+
+        List<AccessLogRecord> drained = new ArrayList<>();
+        assertEquals(1, buffer.drain(drained::add, 1));
+        assertSame(first, drained.get(0));
+        assertEquals(1, buffer.drain(drained::add, 10));
+        assertEquals(0, buffer.drain(drained::add, 10));
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String prefix = p + ":";
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    AccessLogRecord record = record(prefix + i);
+                    while (!buffer.offer(record)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Map<String, Integer> lastSeen = new HashMap<>();
+        int[] total = new int[1];
+        start.countDown();
+        while (total[0] < producers * perProducer) {
+            buffer.drain(r -> {
+                String[] parts = r.getPath().split(":");
+                int sequence = Integer.parseInt(parts[1]);
+                Integer previous = lastSeen.put(parts[0], sequence);
+                assertEquals(previous == null ? 0 : previous + 1, sequence, "producer " + parts[0]);
+                total[0]++;
+            }, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, buffer.drain(r -> { }, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,118 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.util.RoutingKeyResolver;
+
+class MaglevSelectorTest {
+    private static final int TABLE_SIZE = 65537;
+
+    private static ServerInfo[] servers(int... weights) {
+        ServerInfo[] servers = new ServerInfo[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            servers[i] = new ServerInfo("http://10.0.0." + i + ":8080");
+            servers[i].setWeight(weights[i]);
+        }
+        return servers;
+    }
+
+    private static int[] slotCounts(int[] table, int instances) {
+        int[] counts = new int[instances];
+        for (int index : table) {
+            counts[index]++;
+        }
+        return counts;
+    }
+
+    private static long key(int i) {
+        String userId = "user-" + i;
+        return RoutingKeyResolver.hash(userId, 0, userId.length(), 0);
+    }
+
+    @Test
+    void tableSizeIsRoundedUpToAPrime() {
+        MaglevSelector selector = new MaglevSelector(1000);
+        assertEquals(1009, selector.buildTable(InstanceView.of(servers(1, 1))).length);
+    }
+
+    @Test
+    void equalWeightsSplitTheTableEvenly() {
+        MaglevSelector selector = new MaglevSelector(TABLE_SIZE);
+        int[] counts = slotCounts(selector.buildTable(InstanceView.of(servers(1, 1, 1, 1, 1))), 5);
+
+        // Instances take turns, so their shares differ by at most one slot
+        int min = Arrays.stream(counts).min().getAsInt();
+        int max = Arrays.stream(counts).max().getAsInt();
+        assertTrue(max - min <= 1, "slot counts " + Arrays.toString(counts));
+    }
+
+    @Test
+    void weightsSplitTheTableProportionally() {
+        MaglevSelector selector = new MaglevSelector(TABLE_SIZE);
+        int[] counts = slotCounts(selector.buildTable(InstanceView.of(servers(3, 1))), 2);
+
+        assertEquals(3.0, counts[0] / (double) counts[1], 0.01);
+    }
+
+    @Test
+    void sameKeyGoesToSameInstance() {
+        MaglevSelector selector = new MaglevSelector(TABLE_SIZE);
+        InstanceView view = InstanceView.of(servers(1, 1, 1));
+        for (int i = 0; i < 100; i++) {
+            assertSame(selector.select(view, key(i)), selector.select(view, key(i)));
+        }
+    }
+
+    @Test
+    void removingAnInstanceMovesLittleMoreThanItsOwnKeys() {
+        MaglevSelector selector = new MaglevSelector(TABLE_SIZE);
+        ServerInfo[] all = servers(1, 1, 1, 1, 1);
+        InstanceView before = InstanceView.of(all);
+        InstanceView after = InstanceView.of(Arrays.copyOf(all, 4));
+
+        int keys = 10_000;
+        int movedBetweenSurvivors = 0;
+        for (int i = 0; i < keys; i++) {
+            ServerInfo previous = selector.select(before, key(i));
+            if (previous != all[4] && selector.select(after, key(i)) != previous) {
+                movedBetweenSurvivors++;
+            }
+        }
+        // Ideally none; Maglev trades a little disruption for an even split
+        assertTrue(movedBetweenSurvivors < keys / 50, movedBetweenSurvivors + " keys moved between remaining instances");
+    }
+
+    @Test
+    void tableIsBuiltOncePerView() {
+        MaglevSelector selector = new MaglevSelector(TABLE_SIZE);
+        InstanceView view = InstanceView.of(servers(1, 1));
+        selector.select(view, key(1));
+
+        int[] table = view.selectorState(v -> new int[0]);
+        selector.select(view, key(2));
+        assertSame(table, view.selectorState(v -> new int[0]));
+        assertEquals(TABLE_SIZE, table.length);
+    }
+
+    @Test
+    void onlyFlipsOfItsOwnMembersRebuildAView() {
+        ServerInfo[] service = servers(1, 1);
+        ServerInfo other = new ServerInfo("http://10.0.1.1:8080");
+        InstanceView view = InstanceView.of(service);
+
+        other.setHealthy(false);
+        assertSame(view, view.refreshed());
+
+        service[1].setHealthy(false);
+        InstanceView rebuilt = view.refreshed();
+        assertEquals(1, rebuilt.healthyCount());
+        assertSame(rebuilt, rebuilt.refreshed());
+    }
+}
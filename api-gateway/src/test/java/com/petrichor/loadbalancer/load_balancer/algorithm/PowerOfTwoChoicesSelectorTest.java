@@ -0,0 +1,64 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+class PowerOfTwoChoicesSelectorTest {
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static ServerInfo measured(String url, long latencyNanos, int inFlight) {
+        ServerInfo server = new ServerInfo(url);
+        server.recordCall(latencyNanos, false);
+        for (int i = 0; i < inFlight; i++) {
+            server.incrementConnections();
+        }
+        return server;
+    }
+
+    @Test
+    void picksTheCheaperOfTwoInstances() {
+        ServerInfo fast = measured("http://fast:8080", LATENCY, 0);
+        ServerInfo slow = measured("http://slow:8080", LATENCY * 5, 0);
+        ServerInfo busy = measured("http://busy:8080", LATENCY, 9);
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector();
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(fast, selector.select(InstanceView.of(new ServerInfo[] { fast, slow })));
+            assertSame(slow, selector.select(InstanceView.of(new ServerInfo[] { busy, slow })));
+        }
+    }
+
+    @Test
+    void warmingInstanceCostsMoreByItsSlowStartFactor() throws InterruptedException {
+        SlowStart slowStart = new SlowStart(TimeUnit.MILLISECONDS.toNanos(200), 0.1);
+        ServerInfo warm = measured("http://warm:8080", LATENCY, 0);
+        Thread.sleep(250);
+        ServerInfo cold = measured("http://cold:8080", LATENCY, 0);
+        InstanceView view = InstanceView.of(new ServerInfo[] { warm, cold });
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector(slowStart);
+
+        // Equal costs: the warming instance never wins
+        for (int i = 0; i < 100; i++) {
+            assertSame(warm, selector.select(view));
+        }
+
+        // At under a tenth of the warm instance's cost it still does, rather than on a coin flip
+        for (int i = 0; i < 20; i++) {
+            warm.incrementConnections();
+        }
+        for (int i = 0; i < 100; i++) {
+            assertSame(cold, selector.select(view));
+        }
+    }
+
+    @Test
+    void returnsNullWithoutHealthyInstances() {
+        assertNull(new PowerOfTwoChoicesSelector().select(InstanceView.EMPTY));
+    }
+}
@@ -0,0 +1,76 @@
+package com.petrichor.loadbalancer.load_balancer.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+
+class WeightedRoundRobinSelectorTest {
+
+    private static InstanceView view(int... weights) {
+        ServerInfo[] members = new ServerInfo[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            members[i] = new ServerInfo("http://instance-" + i + ":8080");
+            members[i].setWeight(weights[i]);
+        }
+        return InstanceView.of(members);
+    }
+
+    @Test
+    void interleavesPicksOfTheHeavyInstance() {
+        // nginx's example: weights 5/1/1 give a a b a c a a
+        assertArrayEquals(new int[] {0, 0, 1, 0, 2, 0, 0}, WeightedRoundRobinSelector.buildSequence(view(5, 1, 1)));
+    }
+
+    @Test
+    void equalWeightsDegenerateToRoundRobin() {
+        assertArrayEquals(new int[] {0, 1, 2}, WeightedRoundRobinSelector.buildSequence(view(4, 4, 4)));
+    }
+
+    @Test
+    void weightsAreReducedByTheirCommonDivisor() {
+        assertArrayEquals(WeightedRoundRobinSelector.buildSequence(view(5, 1, 1)),
+                WeightedRoundRobinSelector.buildSequence(view(50, 10, 10)));
+    }
+
+    @Test
+    void picksInProportionToWeight() {
+        InstanceView view = view(3, 2, 1);
+        WeightedRoundRobinSelector selector = new WeightedRoundRobinSelector();
+        Map<ServerInfo, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 600; i++) {
+            picks.merge(selector.select(view), 1, Integer::sum);
+        }
+
+        ServerInfo[] members = view.members();
+        assertEquals(300, picks.get(members[0]));
+        assertEquals(200, picks.get(members[1]));
+        assertEquals(100, picks.get(members[2]));
+    }
+
+    @Test
+    void eachViewWalksItsOwnCycle() {
+        InstanceView first = view(2, 1);
+        InstanceView second = view(2, 1);
+        WeightedRoundRobinSelector selector = new WeightedRoundRobinSelector();
+
+        // Picks on one view do not advance the other's cursor
+        assertSame(first.members()[0], selector.select(first));
+        assertSame(first.members()[1], selector.select(first));
+        assertSame(second.members()[0], selector.select(second));
+        assertSame(first.members()[0], selector.select(first));
+        assertSame(second.members()[1], selector.select(second));
+    }
+
+    @Test
+    void returnsNullWithoutHealthyInstances() {
+        assertNull(new WeightedRoundRobinSelector().select(InstanceView.EMPTY));
+    }
+}
@@ -0,0 +1,44 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CacheControlDirectivesTest {
+
+    @Test
+    void parsesDirectivesCaseInsensitively() {
+        CacheControlDirectives directives = CacheControlDirectives.parse("No-Cache, PRIVATE, max-age=60");
+
+        assertTrue(directives.isNoCache());
+        assertTrue(directives.isPrivate());
+        assertFalse(directives.isNoStore());
+        assertEquals(60, directives.getSharedFreshnessSeconds());
+    }
+
+    @Test
+    void sharedMaxAgeTakesPrecedenceOverMaxAge() {
+        assertEquals(10, CacheControlDirectives.parse("max-age=60, s-maxage=10").getSharedFreshnessSeconds());
+        assertEquals(-1, CacheControlDirectives.parse("max-age=soon").getSharedFreshnessSeconds());
+    }
+
+    @Test
+    void missingHeaderHasNoDirectives() {
+        assertSame(CacheControlDirectives.NONE, CacheControlDirectives.parse(null));
+        assertSame(CacheControlDirectives.NONE, CacheControlDirectives.parse(" "));
+    }
+
+    @Test
+    void authorizedResponsesAreSharedOnlyWhenTheOriginSaysSo() {
+        assertTrue(CacheControlDirectives.parse("public, max-age=60").allowsSharedCachingWithAuthorization());
+        assertTrue(CacheControlDirectives.parse("s-maxage=60").allowsSharedCachingWithAuthorization());
+        assertTrue(CacheControlDirectives.parse("max-age=60, must-revalidate").allowsSharedCachingWithAuthorization());
+
+        assertFalse(CacheControlDirectives.parse("max-age=60").allowsSharedCachingWithAuthorization());
+        assertFalse(CacheControlDirectives.parse("proxy-revalidate").allowsSharedCachingWithAuthorization());
+        assertFalse(CacheControlDirectives.NONE.allowsSharedCachingWithAuthorization());
+    }
+}
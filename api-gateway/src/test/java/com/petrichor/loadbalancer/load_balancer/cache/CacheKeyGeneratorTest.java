@@ -0,0 +1,94 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+class CacheKeyGeneratorTest {
+
+    private static CacheKeyGenerator generator(String components) {
+        LoadBalancerConfig config = new LoadBalancerConfig();
+        ReflectionTestUtils.setField(config, "cacheKeyComponents", components);
+        return new CacheKeyGenerator(config);
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(name, value);
+        return headers;
+    }
+
+    @Test
+    void joinsComponentsInConfiguredOrder() {
+        CacheKeyGenerator generator = generator("service,path,method,query");
+
+        String key = generator.generate("FEATURE-SERVICE", "/features/1", "b=2&a=1", "get", new HttpHeaders());
+
+        assertEquals(CacheKeyGenerator.KEY_PREFIX + "FEATURE-SERVICE:/features/1:GET:a=1&b=2", key);
+        assertFalse(generator.isUserScoped());
+    }
+
+    @Test
+    void queryParameterOrderDoesNotMatter() {
+        CacheKeyGenerator generator = generator("path,query");
+
+        assertEquals(generator.generate("S", "/p", "x=1&y=2&z=3", "GET", new HttpHeaders()),
+                generator.generate("S", "/p", "z=3&x=1&y=2", "GET", new HttpHeaders()));
+    }
+
+    @Test
+    void userComponentSeparatesUsers() {
+        CacheKeyGenerator generator = generator("path,user");
+
+        assertTrue(generator.isUserScoped());
+        assertNotEquals(generator.generate("S", "/p", null, "GET", headers("X-User-Id", "alice")),
+                generator.generate("S", "/p", null, "GET", headers("X-User-Id", "bob")));
+    }
+
+    @Test
+    void authorizationComponentIsDigestedNotCopied() {
+        CacheKeyGenerator generator = generator("path,authorization");
+
+        String key = generator.generate("S", "/p", null, "GET", headers(HttpHeaders.AUTHORIZATION, "Bearer secret-token"));
+
+        assertTrue(generator.isUserScoped());
+        assertFalse(key.contains("secret-token"), key);
+        assertNotEquals(key, generator.generate("S", "/p", null, "GET", headers(HttpHeaders.AUTHORIZATION, "Bearer other-token")));
+    }
+
+    @Test
+    void headerComponentUsesTheNamedHeader() {
+        CacheKeyGenerator generator = generator("path,header:Accept-Language");
+
+        assertEquals(CacheKeyGenerator.KEY_PREFIX + "/p:de",
+                generator.generate("S", "/p", null, "GET", headers("Accept-Language", "de")));
+        assertEquals(CacheKeyGenerator.KEY_PREFIX + "/p:", generator.generate("S", "/p", null, "GET", new HttpHeaders()));
+    }
+
+    @Test
+    void variantKeysFollowTheVaryHeaders() {
+        CacheKeyGenerator generator = generator("path");
+        String base = generator.generate("S", "/p", null, "GET", new HttpHeaders());
+
+        assertEquals(base, generator.variantKey(base, List.of(), headers("Accept-Encoding", "gzip")));
+        String gzip = generator.variantKey(base, List.of("Accept-Encoding"), headers("Accept-Encoding", "gzip"));
+        assertTrue(gzip.startsWith(base + ":vary:"), gzip);
+        assertNotEquals(gzip, generator.variantKey(base, List.of("Accept-Encoding"), headers("Accept-Encoding", "br")));
+        assertEquals(gzip, generator.variantKey(base, List.of("accept-encoding"), headers("Accept-Encoding", "gzip")));
+    }
+
+    @Test
+    void rejectsUnknownComponents() {
+        assertThrows(IllegalArgumentException.class, () -> generator("path,cookie"));
+    }
+}
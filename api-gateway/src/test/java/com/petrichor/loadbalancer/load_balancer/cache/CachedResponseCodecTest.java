@@ -0,0 +1,144 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+
+class CachedResponseCodecTest {
+    private static final int COMPRESSION_THRESHOLD = 64;
+
+    private static CachedResponseCodec codec() {
+        LoadBalancerConfig config = new LoadBalancerConfig();
+        ReflectionTestUtils.setField(config, "cacheCompressionThresholdBytes", COMPRESSION_THRESHOLD);
+        ReflectionTestUtils.setField(config, "cacheMaxBodyBytes", 1024L * 1024);
+        return new CachedResponseCodec(config);
+    }
+
+    private static CachedResponse response(byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+        headers.add(HttpHeaders.CACHE_CONTROL, "max-age=60");
+        headers.add("X-Multi", "first");
+        headers.add("X-Multi", "second");
+        return new CachedResponse(200, body, headers, "\"v1\"", 1_000L, 31_000L, 61_000L);
+    }
+
+    @Test
+    void roundTripsStatusHeadersTimesAndBody() {
+        CachedResponseCodec codec = codec();
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        CachedResponse decoded = codec.decode(codec.encode(response(body)));
+
+        assertEquals(200, decoded.getStatus());
+        assertArrayEquals(body, decoded.getBody());
+        assertEquals("\"v1\"", decoded.getEtag());
+        assertEquals(1_000L, decoded.getStoredAtMillis());
+        assertEquals(31_000L, decoded.getFreshUntilMillis());
+        assertEquals(61_000L, decoded.getExpiresAtMillis());
+        assertEquals("application/json", decoded.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals(List.of("first", "second"), decoded.getHeaders().get("X-Multi"));
+        assertEquals(body.length, decoded.getHeaders().getContentLength());
+    }
+
+    @Test
+    void deflatesLargeCompressibleBodies() {
+        CachedResponseCodec codec = codec();
+        byte[] body = new byte[16 * 1024];
+        Arrays.fill(body, (byte) 'a');
+
+        byte[] envelope = codec.encode(response(body));
+
+        assertTrue(envelope.length < body.length / 4, "envelope of " + envelope.length + " bytes");
+        assertArrayEquals(body, codec.decode(envelope).getBody());
+    }
+
+    @Test
+    void storesIncompressibleBodiesAsIs() {
+        CachedResponseCodec codec = codec();
+        byte[] body = new byte[4096];
+        new Random(42).nextBytes(body);
+
+        byte[] envelope = codec.encode(response(body));
+
+        assertTrue(envelope.length > body.length);
+        assertArrayEquals(body, codec.decode(envelope).getBody());
+    }
+
+    @Test
+    void decodesValuesWithoutTheMagicAsStalePlainBodies() {
+        byte[] legacy = "plain body".getBytes(StandardCharsets.UTF_8);
+
+        CachedResponse decoded = codec().decode(legacy);
+
+        assertEquals(200, decoded.getStatus());
+        assertArrayEquals(legacy, decoded.getBody());
+        assertTrue(decoded.isStale(System.currentTimeMillis()));
+    }
+
+    @Test
+    void truncatedEnvelopesDecodeAsNull() {
+        CachedResponseCodec codec = codec();
+        byte[] envelope = codec.encode(response("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        for (int length = 4; length < envelope.length; length += 7) {
+            assertNull(codec.decode(Arrays.copyOf(envelope, length)), "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void corruptDeflatedPayloadsDecodeAsNull() {
+        CachedResponseCodec codec = codec();
+        byte[] body = new byte[16 * 1024];
+        Arrays.fill(body, (byte) 'a');
+        byte[] envelope = codec.encode(response(body));
+
+        Arrays.fill(envelope, envelope.length - 8, envelope.length, (byte) 0x5A);
+
+        assertNull(codec.decode(envelope));
+    }
+
+    @Test
+    void corruptLengthsAreRejectedBeforeAllocating() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('A');
+        out.writeByte('G');
+        out.writeByte(1);
+        out.writeByte(0);
+        out.writeInt(200);
+        out.writeLong(0L);
+        out.writeLong(0L);
+        out.writeLong(0L);
+        out.writeUTF("\"v1\"");
+        out.writeShort(0);
+        out.writeInt(Integer.MAX_VALUE);
+        out.writeInt(Integer.MAX_VALUE);
+
+        assertNull(codec().decode(bytes.toByteArray()));
+    }
+
+    @Test
+    void responsesThatDoNotFitTheFormatAreNotEncoded() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Huge", "x".repeat(70_000));
+        CachedResponse response = new CachedResponse(200, new byte[0], headers, "\"v1\"", 0L, 0L, 0L);
+
+        assertNull(codec().encode(response));
+    }
+}
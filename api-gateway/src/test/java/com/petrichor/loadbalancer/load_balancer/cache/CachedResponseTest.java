@@ -0,0 +1,70 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class CachedResponseTest {
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private static CachedResponse response(int status, byte[] body, String upstreamEtag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+        if (upstreamEtag != null) {
+            headers.add(HttpHeaders.ETAG, upstreamEtag);
+        }
+        return new CachedResponse(status, body, headers, null, 1_000L, 31_000L, 61_000L);
+    }
+
+    @Test
+    void keepsAValidUpstreamEtag() {
+        assertEquals("\"v1\"", response(200, BODY, "\"v1\"").getEtag());
+        assertEquals("W/\"v1\"", response(200, BODY, "W/\"v1\"").getEtag());
+    }
+
+    @Test
+    void quotesAnUnquotedUpstreamEtag() {
+        CachedResponse strong = response(200, BODY, "abc123");
+        CachedResponse weak = response(200, BODY, "W/abc123");
+
+        assertEquals("\"abc123\"", strong.getEtag());
+        assertEquals("\"abc123\"", strong.getHeaders().getETag());
+        assertEquals("\"abc123\"", strong.getNotModifiedHeaders().getETag());
+        assertEquals("W/\"abc123\"", weak.getEtag());
+        assertTrue(strong.matchesAny(List.of("\"abc123\"")));
+    }
+
+    @Test
+    void derivesAnEtagWhenTheUpstreamOneCannotBeRepaired() {
+        String derived = response(200, BODY, null).getEtag();
+
+        assertEquals(derived, response(200, BODY, "two words").getEtag());
+        assertEquals(derived, response(200, BODY, "a\"b").getEtag());
+        assertTrue(derived.startsWith("\"") && derived.endsWith("\""));
+    }
+
+    @Test
+    void setsContentLengthToTheBufferedBody() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(9999);
+
+        CachedResponse response = new CachedResponse(200, BODY, headers, null, 1_000L, 31_000L, 61_000L);
+
+        assertEquals(BODY.length, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    void noContentResponseHasNoContentLength() {
+        CachedResponse response = response(204, new byte[0], "\"v1\"");
+
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+}
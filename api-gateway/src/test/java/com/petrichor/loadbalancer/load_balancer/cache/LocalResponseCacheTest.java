@@ -0,0 +1,85 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+import com.petrichor.loadbalancer.load_balancer.config.LocalCacheConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LocalResponseCacheTest {
+
+    private static LocalResponseCache cache(boolean enabled, SimpleMeterRegistry meterRegistry) {
+        LocalCacheConfig localCacheConfig = new LocalCacheConfig();
+        ReflectionTestUtils.setField(localCacheConfig, "enabled", enabled);
+        ReflectionTestUtils.setField(localCacheConfig, "maxWeightBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(localCacheConfig, "ttlSeconds", 10);
+        LoadBalancerConfig loadBalancerConfig = new LoadBalancerConfig();
+        ReflectionTestUtils.setField(loadBalancerConfig, "cacheTtlSeconds", 60);
+        return new LocalResponseCache(localCacheConfig, loadBalancerConfig, meterRegistry);
+    }
+
+    private static CachedResponse response(long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        return new CachedResponse(200, "{\"id\":1}".getBytes(StandardCharsets.UTF_8), new HttpHeaders(), null,
+                now, Math.min(now + 30_000, expiresAtMillis), expiresAtMillis);
+    }
+
+    @Test
+    void returnsWhatWasPutUntilInvalidated() {
+        LocalResponseCache cache = cache(true, new SimpleMeterRegistry());
+        CachedResponse response = response(System.currentTimeMillis() + 60_000);
+
+        cache.put("GET:/features/list", response);
+        assertSame(response, cache.get("GET:/features/list"));
+        assertNull(cache.get("GET:/features/other"));
+
+        cache.invalidate("GET:/features/list");
+        assertNull(cache.get("GET:/features/list"));
+    }
+
+    @Test
+    void entriesDoNotOutliveTheirHardExpiry() throws InterruptedException {
+        LocalResponseCache cache = cache(true, new SimpleMeterRegistry());
+
+        cache.put("GET:/features/expired", response(System.currentTimeMillis() - 1));
+        cache.put("GET:/features/short", response(System.currentTimeMillis() + 50));
+        assertNull(cache.get("GET:/features/expired"));
+
+        Thread.sleep(100); // Well within the 10 s L1 TTL
+        assertNull(cache.get("GET:/features/short"));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        LocalResponseCache cache = cache(false, new SimpleMeterRegistry());
+
+        cache.put("GET:/features/list", response(System.currentTimeMillis() + 60_000));
+
+        assertNull(cache.get("GET:/features/list"));
+    }
+
+    @Test
+    void publishesHitsAndMisses() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LocalResponseCache cache = cache(true, meterRegistry);
+        cache.put("GET:/features/list", response(System.currentTimeMillis() + 60_000));
+
+        cache.get("GET:/features/list");
+        cache.get("GET:/features/list");
+        cache.get("GET:/features/other");
+
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", LocalResponseCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", LocalResponseCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+}
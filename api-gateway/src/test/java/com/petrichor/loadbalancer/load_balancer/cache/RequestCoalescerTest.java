@@ -0,0 +1,98 @@
+package com.petrichor.loadbalancer.load_balancer.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.CacheCoalescingConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class RequestCoalescerTest {
+
+    private static RequestCoalescer coalescer() {
+        CacheCoalescingConfig config = new CacheCoalescingConfig();
+        ReflectionTestUtils.setField(config, "enabled", true);
+        ReflectionTestUtils.setField(config, "distributedLockPollMs", 50L);
+        return new RequestCoalescer(config, null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        RequestCoalescer coalescer = coalescer();
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            coalescer.execute("key", () -> {
+                loads.incrementAndGet();
+                return upstream.asMono();
+            }, Mono::empty, value -> { }).subscribe(received::add);
+        }
+        upstream.tryEmitValue("response");
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of("response", "response", "response"), received);
+    }
+
+    @Test
+    void finishedFlightIsNotReused() {
+        RequestCoalescer coalescer = coalescer();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            coalescer.execute("key", () -> Mono.just(loads.incrementAndGet()), Mono::empty, value -> { }).block();
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void afterDeliveryRunsOnceEveryWaitingCallerHasTheValue() {
+        RequestCoalescer coalescer = coalescer();
+        Sinks.One<String> upstream = Sinks.one();
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            int caller = i;
+            coalescer.execute("key", upstream::asMono, Mono::empty, value -> events.add("after " + value))
+                    .subscribe(value -> events.add("caller " + caller));
+        }
+        upstream.tryEmitValue("response");
+
+        assertEquals(List.of("caller 0", "caller 1", "after response"), events);
+    }
+
+    @Test
+    void afterDeliveryStillGetsTheValueWhenEveryCallerLeft() {
+        RequestCoalescer coalescer = coalescer();
+        Sinks.One<String> upstream = Sinks.one();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+
+        coalescer.execute("key", upstream::asMono, Mono::empty, delivered::add).subscribe().dispose();
+        upstream.tryEmitValue("response");
+
+        assertEquals(List.of("response"), delivered);
+    }
+
+    @Test
+    void afterDeliveryIsSkippedWhenTheLoadFails() {
+        RequestCoalescer coalescer = coalescer();
+        List<Object> delivered = new CopyOnWriteArrayList<>();
+
+        coalescer.execute("key", () -> Mono.<String>error(new IllegalStateException("upstream down")), Mono::empty, delivered::add)
+                .subscribe(value -> { }, error -> { });
+        coalescer.execute("empty", Mono::<String>empty, Mono::empty, delivered::add).subscribe();
+
+        assertTrue(delivered.isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Records what the limiter reports at the end of each window and raises the limit by one
+    private static final class RecordingAlgorithm implements LimitAlgorithm {
+        int windows;
+        long rttNanos;
+        int maxInFlight;
+        boolean dropped;
+
+        @Override
+        public double update(double currentLimit, long rttNanos, int maxInFlight, boolean dropped) {
+            this.windows++;
+            this.rttNanos = rttNanos;
+            this.maxInFlight = maxInFlight;
+            this.dropped = dropped;
+            return currentLimit + 1;
+        }
+    }
+
+    @Test
+    void admitsUpToTheLimitAndRejectsBeyondIt() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new RecordingAlgorithm(), 2, 1, 10, Long.MAX_VALUE, 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void initialLimitIsClampedToTheBounds() {
+        assertEquals(50, new AdaptiveConcurrencyLimiter(new RecordingAlgorithm(), 1000, 5, 50, MILLI, 1).getLimit());
+        assertEquals(5, new AdaptiveConcurrencyLimiter(new RecordingAlgorithm(), 1, 5, 50, MILLI, 1).getLimit());
+    }
+
+    @Test
+    void windowClosesOnceItHasEnoughSamples() {
+        RecordingAlgorithm algorithm = new RecordingAlgorithm();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(algorithm, 10, 1, 100, 0, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        limiter.onSample(10 * MILLI, false);
+        limiter.onSample(30 * MILLI, false);
+        assertEquals(0, algorithm.windows);
+
+        limiter.onSample(1000 * MILLI, true);
+        assertEquals(1, algorithm.windows);
+        assertEquals(20 * MILLI, algorithm.rttNanos); // The dropped call's RTT is left out
+        assertEquals(3, algorithm.maxInFlight);
+        assertTrue(algorithm.dropped);
+        assertEquals(11, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void windowDoesNotCloseBeforeItsDuration() {
+        RecordingAlgorithm algorithm = new RecordingAlgorithm();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(algorithm, 10, 1, 100, TimeUnit.HOURS.toNanos(1), 1);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(MILLI, false);
+        }
+
+        assertEquals(0, algorithm.windows);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void algorithmResultIsClampedToTheBounds() {
+        LimitAlgorithm collapse = (currentLimit, rttNanos, maxInFlight, dropped) -> 0;
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(collapse, 10, 4, 100, 0, 1);
+
+        limiter.tryAcquire();
+        limiter.onSample(MILLI, true);
+
+        assertEquals(4, limiter.getLimit());
+    }
+}
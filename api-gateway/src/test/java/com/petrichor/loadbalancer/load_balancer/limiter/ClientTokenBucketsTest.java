@@ -0,0 +1,81 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ClientTokenBucketsTest {
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    // Keys sharing their top 6 bits land in the same stripe
+    private static long keyInStripe(int stripe, int i) {
+        return ((long) stripe << 58) | (i + 1);
+    }
+
+    @Test
+    void newClientsStartWithAFullBurst() {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(1000, HOUR_MILLIS);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire(42L, 1.0, 3.0));
+        }
+        long waitMillis = buckets.tryAcquire(42L, 1.0, 3.0);
+        assertTrue(waitMillis > 0 && waitMillis <= 1000, "wait of " + waitMillis + " ms");
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(1000, HOUR_MILLIS);
+
+        assertEquals(0, buckets.tryAcquire(1L, 1.0, 1.0));
+        assertTrue(buckets.tryAcquire(1L, 1.0, 1.0) > 0);
+        assertEquals(0, buckets.tryAcquire(2L, 1.0, 1.0));
+    }
+
+    @Test
+    void bucketsRefillAtTheirRate() throws InterruptedException {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(1000, HOUR_MILLIS);
+        assertEquals(0, buckets.tryAcquire(7L, 200.0, 1.0));
+        assertTrue(buckets.tryAcquire(7L, 200.0, 1.0) > 0);
+
+        Thread.sleep(20);
+        assertEquals(0, buckets.tryAcquire(7L, 200.0, 1.0));
+    }
+
+    @Test
+    void neverKeepsMoreThanMaxClients() {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(64 * 8, HOUR_MILLIS);
+
+        for (int i = 0; i < 10_000; i++) {
+            buckets.tryAcquire(i * 0x9E3779B97F4A7C15L, 1.0, 1.0);
+            assertTrue(buckets.size() <= 64 * 8, "size " + buckets.size() + " after " + (i + 1) + " clients");
+        }
+    }
+
+    @Test
+    void fullStripeDropsIdleBucketsFirst() throws InterruptedException {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(64 * 8, 10);
+        for (int i = 0; i < 8; i++) {
+            buckets.tryAcquire(keyInStripe(5, i), 1.0, 1.0);
+        }
+        assertEquals(8, buckets.size());
+
+        Thread.sleep(30);
+        buckets.tryAcquire(keyInStripe(5, 8), 1.0, 1.0);
+
+        assertEquals(1, buckets.size());
+    }
+
+    @Test
+    void evictedClientsComeBackWithAFullBucket() {
+        ClientTokenBuckets buckets = new ClientTokenBuckets(64, HOUR_MILLIS); // One bucket per stripe
+        long first = keyInStripe(3, 0);
+        assertEquals(0, buckets.tryAcquire(first, 0.001, 1.0));
+        assertTrue(buckets.tryAcquire(first, 0.001, 1.0) > 0);
+
+        buckets.tryAcquire(keyInStripe(3, 1), 0.001, 1.0); // Evicts the first client
+
+        assertEquals(0, buckets.tryAcquire(first, 0.001, 1.0));
+    }
+}
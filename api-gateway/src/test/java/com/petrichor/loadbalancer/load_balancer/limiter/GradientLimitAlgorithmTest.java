@@ -0,0 +1,50 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GradientLimitAlgorithmTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Smoothing 1 applies each estimate as is
+    private final GradientLimitAlgorithm algorithm = new GradientLimitAlgorithm(1.5, 1.0);
+
+    @Test
+    void growsByTheQueueAllowanceWhileRttStaysWithinTolerance() {
+        assertEquals(10 + Math.sqrt(10), algorithm.update(10, RTT, 10, false), 1e-9);
+        assertEquals(20 + Math.sqrt(20), algorithm.update(20, RTT * 14 / 10, 20, false), 1e-9);
+    }
+
+    @Test
+    void doesNotGrowWhileTheUpstreamIsNotPushed() {
+        assertEquals(10, algorithm.update(10, RTT, 4, false), 1e-9);
+    }
+
+    @Test
+    void shrinksWhenRttExceedsTheTolerance() {
+        algorithm.update(10, RTT, 10, false);
+
+        // 1.5 x 100 / 200 = 0.75 of the limit, plus sqrt(limit)
+        assertEquals(40 * 0.75 + Math.sqrt(40), algorithm.update(40, RTT * 2, 40, false), 1e-9);
+        // The gradient never cuts more than half per window
+        double limit = algorithm.update(40, RTT * 10, 40, false);
+        assertEquals(40 * 0.5 + Math.sqrt(40), limit, 1e-9);
+        assertTrue(limit < 40);
+    }
+
+    @Test
+    void backsOffOnDrops() {
+        assertEquals(9, algorithm.update(10, 0, 10, true), 1e-9);
+    }
+
+    @Test
+    void smoothsTowardsTheEstimate() {
+        GradientLimitAlgorithm smoothed = new GradientLimitAlgorithm(1.5, 0.2);
+
+        assertEquals(10 * 0.8 + 9 * 0.2, smoothed.update(10, 0, 10, true), 1e-9);
+    }
+}
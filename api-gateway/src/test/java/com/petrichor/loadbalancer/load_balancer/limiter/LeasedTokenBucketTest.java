@@ -0,0 +1,85 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class LeasedTokenBucketTest {
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void servesPermitsFromOneLease() {
+        AtomicInteger leases = new AtomicInteger();
+        LeasedTokenBucket bucket = new LeasedTokenBucket(10, TTL_NANOS, requested -> {
+            leases.incrementAndGet();
+            return Mono.just((long) requested);
+        });
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.acquire().block());
+        }
+        assertEquals(1, leases.get());
+        assertEquals(5, bucket.getLocalTokens());
+    }
+
+    @Test
+    void refillsInTheBackgroundWhenRunningLow() {
+        AtomicInteger leases = new AtomicInteger();
+        LeasedTokenBucket bucket = new LeasedTokenBucket(10, TTL_NANOS, requested -> {
+            leases.incrementAndGet();
+            return Mono.just((long) requested);
+        });
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(bucket.acquire().block());
+        }
+        // The sixth permit left 4 of 10 tokens, below half a lease, so another lease was added
+        assertEquals(2, leases.get());
+        assertEquals(14, bucket.getLocalTokens());
+    }
+
+    @Test
+    void deniesPermitsTheSharedBucketDoesNotGrant() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(10, TTL_NANOS, requested -> Mono.just(0L));
+
+        assertFalse(bucket.acquire().block());
+        assertEquals(0, bucket.getLocalTokens());
+    }
+
+    @Test
+    void expiredTokensAreNotUsedOrCarriedIntoTheNextLease() throws InterruptedException {
+        AtomicLong grant = new AtomicLong(10);
+        AtomicInteger leases = new AtomicInteger();
+        LeasedTokenBucket bucket = new LeasedTokenBucket(10, TimeUnit.MILLISECONDS.toNanos(20), requested -> {
+            leases.incrementAndGet();
+            return Mono.just(grant.get());
+        });
+        assertTrue(bucket.acquire().block());
+        assertEquals(9, bucket.getLocalTokens());
+
+        Thread.sleep(50);
+        assertEquals(0, bucket.getLocalTokens());
+
+        grant.set(3);
+        assertTrue(bucket.acquire().block());
+        assertEquals(2, leases.get());
+        assertEquals(2, bucket.getLocalTokens());
+    }
+
+    @Test
+    void propagatesSharedBucketErrorsToWaitingCallers() {
+        LeasedTokenBucket bucket = new LeasedTokenBucket(10, TTL_NANOS,
+                requested -> Mono.error(new IllegalStateException("store unavailable")));
+
+        assertThrows(IllegalStateException.class, () -> bucket.acquire().block());
+    }
+}
@@ -0,0 +1,54 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class NoLoadRttLimitAlgorithmTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Keeps the limit and remembers the no-load RTT it was given
+    private static final class FixedLimit extends NoLoadRttLimitAlgorithm {
+        long noLoadRttNanos;
+
+        @Override
+        protected double estimate(double currentLimit, long rttNanos, long noLoadRttNanos, int maxInFlight, boolean dropped) {
+            this.noLoadRttNanos = noLoadRttNanos;
+            return currentLimit;
+        }
+    }
+
+    @Test
+    void noLoadRttIsTheLowestRttSeen() {
+        FixedLimit algorithm = new FixedLimit();
+
+        algorithm.update(100, RTT * 2, 100, false);
+        algorithm.update(100, RTT, 100, false);
+        algorithm.update(100, RTT * 3, 100, false);
+        assertEquals(RTT, algorithm.noLoadRttNanos);
+
+        algorithm.update(100, RTT / 10, 100, true); // Dropped windows do not count
+        assertEquals(RTT, algorithm.noLoadRttNanos);
+    }
+
+    @Test
+    void probesAtHalfTheLimitAndAdoptsTheRttMeasuredThere() {
+        FixedLimit algorithm = new FixedLimit();
+        algorithm.update(100, RTT, 100, false);
+
+        int windows = 0;
+        while (algorithm.update(100, RTT, 100, false) == 100) {
+            windows++;
+            assertTrue(windows <= 60, "no probe within 60 windows");
+        }
+        assertTrue(windows >= 28, "probed after only " + windows + " windows");
+
+        // The upstream got permanently slower; the probe window's RTT replaces the old minimum
+        assertEquals(100, algorithm.update(50, RTT * 2, 50, false), 1e-9);
+        algorithm.update(100, RTT * 2, 100, false);
+        assertEquals(RTT * 2, algorithm.noLoadRttNanos);
+    }
+}
@@ -0,0 +1,60 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.MockServerConfigurer;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.WebHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.petrichor.loadbalancer.load_balancer.config.ClientRateLimitConfig;
+import com.petrichor.loadbalancer.load_balancer.security.ClientRateLimitWebFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class RateLimitExceededExceptionHandlerTest {
+
+    // Registers the handler the way the application context does, ahead of any other
+    private static final MockServerConfigurer WITH_HANDLER = new MockServerConfigurer() {
+        @Override
+        public void beforeServerCreated(WebHttpHandlerBuilder builder) {
+            builder.exceptionHandlers(handlers -> handlers.add(0, new RateLimitExceededExceptionHandler()));
+        }
+    };
+
+    private static ClientRateLimitWebFilter clientRateLimit(String rules) {
+        ClientRateLimitConfig config = new ClientRateLimitConfig();
+        ReflectionTestUtils.setField(config, "enabled", true);
+        ReflectionTestUtils.setField(config, "rules", rules);
+        ReflectionTestUtils.setField(config, "maxClients", 1000);
+        ReflectionTestUtils.setField(config, "idleEvictionSeconds", 600L);
+        return new ClientRateLimitWebFilter(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void clientOverItsLimitGets429WithRetryAfter() {
+        WebHandler ok = exchange -> exchange.getResponse().setComplete();
+        WebTestClient client = WebTestClient.bindToWebHandler(ok)
+                .webFilter(clientRateLimit("/**:anonymous=0.5/1"))
+                .apply(WITH_HANDLER)
+                .build();
+
+        client.get().uri("/features/1").exchange().expectStatus().isOk();
+        client.get().uri("/features/1").exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+    }
+
+    @Test
+    void serviceRateLimitRefusalGets429WithRetryAfter() {
+        WebHandler refusing = exchange -> Mono.error(new RateLimitExceededException("FEATURE-SERVICE", 7));
+        WebTestClient client = WebTestClient.bindToWebHandler(refusing).apply(WITH_HANDLER).build();
+
+        client.get().uri("/features/1").exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "7");
+    }
+}
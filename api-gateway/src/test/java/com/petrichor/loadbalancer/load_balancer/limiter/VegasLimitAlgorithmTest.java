@@ -0,0 +1,47 @@
+package com.petrichor.loadbalancer.load_balancer.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class VegasLimitAlgorithmTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Smoothing 1 applies each estimate as is
+    private final VegasLimitAlgorithm algorithm = new VegasLimitAlgorithm(1.0);
+
+    @Test
+    void growsQuicklyWithoutAQueue() {
+        // log10(100) = 2: no queue grows the limit by 6 x 2
+        assertEquals(112, algorithm.update(100, RTT, 100, false), 1e-9);
+    }
+
+    @Test
+    void growsSlowlyWithAShortQueue() {
+        algorithm.update(100, RTT, 100, false);
+
+        // Queue of 100 x (1 - 100/105) = 5 (rounded up), between 2 and 6
+        assertEquals(102, algorithm.update(100, RTT * 105 / 100, 100, false), 1e-9);
+    }
+
+    @Test
+    void shrinksWithALongQueue() {
+        algorithm.update(100, RTT, 100, false);
+
+        assertEquals(98, algorithm.update(100, RTT * 2, 100, false), 1e-9);
+    }
+
+    @Test
+    void doesNotGrowWhileTheUpstreamIsNotPushed() {
+        algorithm.update(100, RTT, 100, false);
+
+        assertEquals(100, algorithm.update(100, RTT, 40, false), 1e-9);
+    }
+
+    @Test
+    void shrinksOnDrops() {
+        assertEquals(98, algorithm.update(100, 0, 100, true), 1e-9);
+    }
+}
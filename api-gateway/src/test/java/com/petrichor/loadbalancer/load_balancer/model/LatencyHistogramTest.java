@@ -0,0 +1,76 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (int micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketOf(micros));
+            assertEquals(micros, LatencyHistogram.upperBoundMicros(micros));
+        }
+    }
+
+    @Test
+    void everyValueFallsInTheBucketBoundingIt() {
+        int previousBucket = 0;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(bucket == previousBucket || bucket == previousBucket + 1, "buckets are contiguous at " + micros);
+            assertTrue(LatencyHistogram.upperBoundMicros(bucket) >= micros, "upper bound covers " + micros);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBoundMicros(bucket - 1) < micros, "previous bucket ends below " + micros);
+            }
+            previousBucket = bucket;
+        }
+    }
+
+    @Test
+    void relativeErrorIsBoundedBySubBucketWidth() {
+        for (long micros = 16; micros < 1L << 36; micros = micros * 3 / 2 + 1) {
+            long upperBound = LatencyHistogram.upperBoundMicros(LatencyHistogram.bucketOf(micros));
+            assertTrue(upperBound - micros <= micros / 16, "error at " + micros + " was " + (upperBound - micros));
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        assertEquals(0, LatencyHistogram.bucketOf(-5));
+        assertEquals(LatencyHistogram.bucketOf(1L << 40), LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(MINUTE_NANOS);
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(500), histogram.getPercentileNanos(0.5));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(990), histogram.getPercentileNanos(0.99));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getPercentileNanos(1.0));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(1), histogram.getPercentileNanos(0.0));
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram(MINUTE_NANOS);
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(0.99));
+    }
+
+    // Percentiles report the upper bound of their bucket, at most 1/16 above the true value
+    private static void assertWithin(long expectedNanos, long actualNanos) {
+        assertTrue(actualNanos >= expectedNanos && actualNanos <= expectedNanos + expectedNanos / 16,
+                "expected about " + expectedNanos + " but was " + actualNanos);
+    }
+}
@@ -0,0 +1,46 @@
+package com.petrichor.loadbalancer.load_balancer.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBudgetTest {
+
+    @Test
+    void startsFullAndAllowsTheBurst() {
+        TokenBudget budget = new TokenBudget(0.1, 3);
+
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void depositsEarnWholeTokensAtTheRatio() {
+        TokenBudget budget = new TokenBudget(0.25, 1);
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 3; i++) {
+            budget.deposit();
+        }
+        assertEquals(0.75, budget.getBalance(), 1e-9);
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    void balanceIsCappedAtTheCapacity() {
+        TokenBudget budget = new TokenBudget(0.5, 2);
+
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        assertEquals(2.0, budget.getBalance(), 1e-9);
+    }
+}
@@ -0,0 +1,105 @@
+package com.petrichor.loadbalancer.load_balancer.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+class RouteTrieTest {
+
+    private static Route route(String id, String pattern, HttpMethod... methods) {
+        return new Route(id, pattern, "SERVICE", methods, 1, "", true, true, null, false, null, null, null);
+    }
+
+    private static String matchedId(RouteTrie trie, String path, HttpMethod method) {
+        Route route = trie.match(path, method);
+        return route != null ? route.getId() : null;
+    }
+
+    @Test
+    void literalBeatsWildcardBeatsRemainder() {
+        RouteTrie trie = RouteTrie.compile(List.of(
+                route("remainder", "/features/**"),
+                route("wildcard", "/features/{id}"),
+                route("literal", "/features/actuator")));
+
+        assertEquals("literal", matchedId(trie, "/features/actuator", HttpMethod.GET));
+        assertEquals("wildcard", matchedId(trie, "/features/42", HttpMethod.GET));
+        assertEquals("remainder", matchedId(trie, "/features/42/detail", HttpMethod.GET));
+        assertEquals("remainder", matchedId(trie, "/features", HttpMethod.GET));
+    }
+
+    @Test
+    void backtracksWhenTheMoreSpecificBranchHasNoRoute() {
+        RouteTrie trie = RouteTrie.compile(List.of(
+                route("actuator", "/features/actuator/health"),
+                route("detail", "/features/{id}/detail"),
+                route("features", "/features/**")));
+
+        // "actuator" is a literal child, but only {id}/detail matches the rest of the path
+        assertEquals("detail", matchedId(trie, "/features/actuator/detail", HttpMethod.GET));
+        assertEquals("features", matchedId(trie, "/features/actuator/metrics", HttpMethod.GET));
+        assertEquals("actuator", matchedId(trie, "/features/actuator/health", HttpMethod.GET));
+    }
+
+    @Test
+    void methodRestrictedRouteFallsThroughToLessSpecificOne() {
+        RouteTrie trie = RouteTrie.compile(List.of(
+                route("login", "/auth/login", HttpMethod.POST),
+                route("auth", "/auth/**")));
+
+        assertEquals("login", matchedId(trie, "/auth/login", HttpMethod.POST));
+        assertEquals("auth", matchedId(trie, "/auth/login", HttpMethod.GET));
+    }
+
+    @Test
+    void routesWithTheSamePatternKeepDeclarationOrder() {
+        RouteTrie trie = RouteTrie.compile(List.of(
+                route("write", "/items/**", HttpMethod.POST, HttpMethod.PUT),
+                route("any", "/items/**")));
+
+        assertEquals("write", matchedId(trie, "/items/1", HttpMethod.PUT));
+        assertEquals("any", matchedId(trie, "/items/1", HttpMethod.GET));
+        assertEquals("write", matchedId(trie, "/items/1", null));
+    }
+
+    @Test
+    void literalSegmentsAreCaseSensitive() {
+        RouteTrie trie = RouteTrie.compile(List.of(route("api", "/api/users")));
+
+        assertEquals("api", matchedId(trie, "/api/users", HttpMethod.GET));
+        assertNull(matchedId(trie, "/API/users", HttpMethod.GET));
+        assertNull(matchedId(trie, "/api/Users", HttpMethod.GET));
+    }
+
+    @Test
+    void wildcardDoesNotMatchAnEmptySegment() {
+        RouteTrie trie = RouteTrie.compile(List.of(route("item", "/items/{id}")));
+
+        assertEquals("item", matchedId(trie, "/items/7", HttpMethod.GET));
+        assertNull(matchedId(trie, "/items/", HttpMethod.GET));
+        assertNull(matchedId(trie, "/items/7/parts", HttpMethod.GET));
+    }
+
+    @Test
+    void rootAndTrailingSlashPatternsMatchExactly() {
+        RouteTrie trie = RouteTrie.compile(List.of(
+                route("root", "/"),
+                route("docs", "/docs/")));
+
+        assertEquals("root", matchedId(trie, "/", HttpMethod.GET));
+        assertEquals("docs", matchedId(trie, "/docs", HttpMethod.GET));
+        assertNull(matchedId(trie, "/other", HttpMethod.GET));
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> RouteTrie.compile(List.of(route("relative", "features/**"))));
+        assertThrows(IllegalArgumentException.class, () -> RouteTrie.compile(List.of(route("inner", "/a/**/b"))));
+        assertThrows(IllegalArgumentException.class, () -> RouteTrie.compile(List.of(route("empty", "/a//b"))));
+    }
+}
@@ -0,0 +1,84 @@
+package com.petrichor.loadbalancer.load_balancer.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.JwtCacheConfig;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtValidationUtilTest {
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET);
+
+    private static JwtValidationUtil validator(boolean cacheEnabled) {
+        JwtCacheConfig config = new JwtCacheConfig();
+        ReflectionTestUtils.setField(config, "enabled", cacheEnabled);
+        ReflectionTestUtils.setField(config, "maxEntries", 100L);
+        ReflectionTestUtils.setField(config, "maxTtlSeconds", 300L);
+        JwtValidationUtil validator = new JwtValidationUtil(config, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(validator, "secretString", Base64.getEncoder().encodeToString(SECRET));
+        validator.init();
+        return validator;
+    }
+
+    private static JwtBuilder token() {
+        return Jwts.builder()
+                .subject("alice")
+                .claim("userId", "42")
+                .claim("roles", List.of("USER"))
+                .signWith(KEY);
+    }
+
+    @Test
+    void verifiesSignedUnexpiredTokens() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+
+        JwtPrincipal principal = validator(false).verify(token().expiration(expiration).compact());
+
+        assertNotNull(principal);
+        assertEquals("42", principal.getUserId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(List.of("USER"), principal.getRoles());
+        assertEquals(expiration.getTime() / 1000 * 1000, principal.getExpiresAtMillis());
+    }
+
+    @Test
+    void rejectsTokensWithoutExpiration() {
+        String token = token().compact();
+
+        assertNull(validator(false).verify(token));
+        assertNull(validator(true).verify(token));
+    }
+
+    @Test
+    void rejectsExpiredAndBadlySignedTokens() {
+        assertNull(validator(false).verify(token().expiration(new Date(System.currentTimeMillis() - 60_000)).compact()));
+
+        SecretKey otherKey = Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes());
+        String forged = token().expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(otherKey).compact();
+        assertNull(validator(false).verify(forged));
+    }
+
+    @Test
+    void reusesThePrincipalOfAVerifiedToken() {
+        JwtValidationUtil validator = validator(true);
+        String token = token().expiration(new Date(System.currentTimeMillis() + 60_000)).compact();
+
+        assertSame(validator.verify(token), validator.verify(token));
+    }
+}
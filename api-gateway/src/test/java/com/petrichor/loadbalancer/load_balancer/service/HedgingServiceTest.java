@@ -0,0 +1,93 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.HedgingConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.routing.Route;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HedgingServiceTest {
+
+    private static HedgingService hedging(boolean enabled) {
+        HedgingConfig config = new HedgingConfig();
+        ReflectionTestUtils.setField(config, "enabled", enabled);
+        ReflectionTestUtils.setField(config, "methods", "GET,HEAD");
+        ReflectionTestUtils.setField(config, "percentile", 0.95);
+        ReflectionTestUtils.setField(config, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(config, "minSamples", 50);
+        ReflectionTestUtils.setField(config, "budgetPercent", 50.0);
+        ReflectionTestUtils.setField(config, "budgetBurst", 1);
+        return new HedgingService(config, new SimpleMeterRegistry());
+    }
+
+    private static Route route(boolean hedge) {
+        return new Route("features", "/features/**", "FEATURE-SERVICE", new HttpMethod[0], 1, "", true, true, null, hedge,
+                null, null, null);
+    }
+
+    private static ServerInfo measured(int calls, long latencyNanos) {
+        ServerInfo server = new ServerInfo("http://instance:8080");
+        for (int i = 0; i < calls; i++) {
+            server.recordCall(latencyNanos, false);
+        }
+        return server;
+    }
+
+    @Test
+    void hedgesIdempotentRequestsOfOptedInRoutes() {
+        Duration delay = hedging(true).hedgeDelay(route(true), "get", measured(100, TimeUnit.MILLISECONDS.toNanos(200)));
+
+        assertNotNull(delay);
+        assertTrue(delay.toMillis() >= 150, "delay of " + delay.toMillis() + " ms");
+    }
+
+    @Test
+    void doesNotHedgeRoutesThatDoNotOptIn() {
+        ServerInfo primary = measured(100, TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertNull(hedging(true).hedgeDelay(route(false), "GET", primary));
+        assertNull(hedging(false).hedgeDelay(route(true), "GET", primary));
+    }
+
+    @Test
+    void doesNotHedgeOtherMethods() {
+        assertNull(hedging(true).hedgeDelay(route(true), "POST", measured(100, TimeUnit.MILLISECONDS.toNanos(200))));
+    }
+
+    @Test
+    void waitsForEnoughSamplesAndAtLeastTheMinimumDelay() {
+        HedgingService hedging = hedging(true);
+
+        assertNull(hedging.hedgeDelay(route(true), "GET", measured(10, TimeUnit.MILLISECONDS.toNanos(200))));
+        assertEquals(Duration.ofMillis(10), hedging.hedgeDelay(route(true), "GET", measured(100, 1000)));
+    }
+
+    @Test
+    void hedgesAreLimitedByTheBudgetEarnedFromHedgeableRequests() {
+        HedgingService hedging = hedging(true);
+        ServerInfo primary = measured(100, TimeUnit.MILLISECONDS.toNanos(200));
+
+        // The budget starts with a full burst of one hedge; each hedgeable request earns half of another
+        assertTrue(hedging.tryAcquireHedge("FEATURE-SERVICE"));
+        assertFalse(hedging.tryAcquireHedge("FEATURE-SERVICE"));
+
+        hedging.hedgeDelay(route(false), "GET", primary); // Requests that are not hedgeable earn nothing
+        hedging.hedgeDelay(route(true), "GET", primary);
+        assertFalse(hedging.tryAcquireHedge("FEATURE-SERVICE"));
+        hedging.hedgeDelay(route(true), "GET", primary);
+        assertTrue(hedging.tryAcquireHedge("FEATURE-SERVICE"));
+    }
+}
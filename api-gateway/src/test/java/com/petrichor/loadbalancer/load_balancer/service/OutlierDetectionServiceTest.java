@@ -0,0 +1,152 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.algorithm.InstanceView;
+import com.petrichor.loadbalancer.load_balancer.config.LoadBalancerConfig;
+import com.petrichor.loadbalancer.load_balancer.config.OutlierDetectionConfig;
+import com.petrichor.loadbalancer.load_balancer.model.ServerInfo;
+import com.petrichor.loadbalancer.load_balancer.registry.ServiceInstanceRegistry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutlierDetectionServiceTest {
+    private static final String SERVICE = "FEATURE-SERVICE";
+
+    private static OutlierDetectionService detector(InstanceView view, long baseEjectionMs) {
+        OutlierDetectionConfig config = new OutlierDetectionConfig();
+        ReflectionTestUtils.setField(config, "enabled", true);
+        ReflectionTestUtils.setField(config, "consecutiveFailures", 3);
+        ReflectionTestUtils.setField(config, "baseEjectionMs", baseEjectionMs);
+        ReflectionTestUtils.setField(config, "maxEjectionMs", 300_000L);
+        ReflectionTestUtils.setField(config, "maxEjectionPercent", 50);
+        ReflectionTestUtils.setField(config, "successRateMinRequests", 20);
+        ReflectionTestUtils.setField(config, "successRateMinHosts", 3);
+        ReflectionTestUtils.setField(config, "successRateStdevFactor", 1.0);
+        ServiceInstanceRegistry registry = new ServiceInstanceRegistry(null, null, new LoadBalancerConfig(), null) {
+            @Override
+            public InstanceView getSnapshot(String serviceName) {
+                return SERVICE.equals(serviceName) ? view : null;
+            }
+
+            @Override
+            public Map<String, InstanceView> getSnapshots() {
+                return Map.of(SERVICE, view);
+            }
+        };
+        return new OutlierDetectionService(config, registry, new SimpleMeterRegistry());
+    }
+
+    private static ServerInfo[] servers(int count) {
+        ServerInfo[] servers = new ServerInfo[count];
+        for (int i = 0; i < count; i++) {
+            servers[i] = new ServerInfo("http://instance-" + i + ":8080");
+        }
+        return servers;
+    }
+
+    private static void fail(OutlierDetectionService detector, ServerInfo server, int times) {
+        for (int i = 0; i < times; i++) {
+            server.recordCall(1_000_000, true);
+            detector.onCallCompleted(SERVICE, server, true);
+        }
+    }
+
+    private static void record(ServerInfo server, int calls, int failures) {
+        for (int i = 0; i < calls; i++) {
+            server.recordCall(1_000_000, i < failures);
+        }
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailures() {
+        ServerInfo[] servers = servers(4);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 30_000);
+
+        fail(detector, servers[0], 2);
+        servers[0].recordCall(1_000_000, false); // A success resets the streak
+        fail(detector, servers[0], 2);
+        assertFalse(servers[0].isEjected());
+
+        fail(detector, servers[0], 1);
+        assertTrue(servers[0].isEjected());
+        assertEquals(1, servers[0].getEjectionCount());
+    }
+
+    @Test
+    void neverEjectsMoreThanTheMaximumShare() {
+        ServerInfo[] servers = servers(4);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 30_000);
+
+        for (ServerInfo server : servers) {
+            fail(detector, server, 3);
+        }
+
+        int ejected = 0;
+        for (ServerInfo server : servers) {
+            ejected += server.isEjected() ? 1 : 0;
+        }
+        assertEquals(2, ejected);
+    }
+
+    @Test
+    void neverEjectsTheOnlyInstance() {
+        ServerInfo[] servers = servers(1);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 30_000);
+
+        fail(detector, servers[0], 10);
+
+        assertFalse(servers[0].isEjected());
+    }
+
+    @Test
+    void sweepEjectsSuccessRateOutliersAmongPeers() {
+        ServerInfo[] servers = servers(4);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 30_000);
+        record(servers[0], 100, 1);
+        record(servers[1], 100, 0);
+        record(servers[2], 100, 2);
+        record(servers[3], 100, 40);
+
+        detector.sweep();
+
+        assertFalse(servers[0].isEjected());
+        assertFalse(servers[1].isEjected());
+        assertFalse(servers[2].isEjected());
+        assertTrue(servers[3].isEjected());
+    }
+
+    @Test
+    void sweepIgnoresInstancesWithTooFewCalls() {
+        ServerInfo[] servers = servers(4);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 30_000);
+        record(servers[0], 100, 0);
+        record(servers[1], 100, 0);
+        record(servers[2], 100, 0);
+        record(servers[3], 10, 5);
+
+        detector.sweep();
+
+        assertFalse(servers[3].isEjected());
+    }
+
+    @Test
+    void sweepReturnsInstancesWhoseEjectionHasElapsed() throws InterruptedException {
+        ServerInfo[] servers = servers(4);
+        OutlierDetectionService detector = detector(InstanceView.of(servers), 1);
+        fail(detector, servers[0], 3);
+        assertTrue(servers[0].isEjected());
+
+        Thread.sleep(5);
+        detector.sweep();
+
+        assertFalse(servers[0].isEjected());
+    }
+}
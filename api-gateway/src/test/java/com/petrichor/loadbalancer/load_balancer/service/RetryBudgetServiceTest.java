@@ -0,0 +1,76 @@
+package com.petrichor.loadbalancer.load_balancer.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.petrichor.loadbalancer.load_balancer.config.RetryBudgetConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryBudgetServiceTest {
+
+    private static RetryBudgetConfig config(boolean enabled) {
+        RetryBudgetConfig config = new RetryBudgetConfig();
+        ReflectionTestUtils.setField(config, "enabled", enabled);
+        ReflectionTestUtils.setField(config, "percent", 20.0);
+        ReflectionTestUtils.setField(config, "burst", 2);
+        return config;
+    }
+
+    @Test
+    void retriesAreLimitedToTheBurstAndThenToTheEarnedShare() {
+        RetryBudgetService budgets = new RetryBudgetService(config(true), new SimpleMeterRegistry());
+
+        assertTrue(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+        assertTrue(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+        assertFalse(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+
+        // Five requests at 20% earn one more retry
+        for (int i = 0; i < 4; i++) {
+            budgets.onRequest("FEATURE-SERVICE");
+        }
+        assertFalse(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+        budgets.onRequest("FEATURE-SERVICE");
+        assertTrue(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+    }
+
+    @Test
+    void servicesHaveSeparateBudgets() {
+        RetryBudgetService budgets = new RetryBudgetService(config(true), new SimpleMeterRegistry());
+
+        budgets.tryAcquireRetry("FEATURE-SERVICE");
+        budgets.tryAcquireRetry("FEATURE-SERVICE");
+
+        assertFalse(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+        assertTrue(budgets.tryAcquireRetry("AUTH-SERVICE"));
+    }
+
+    @Test
+    void disabledBudgetAllowsEveryRetryAndStillCountsThem() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryBudgetService budgets = new RetryBudgetService(config(false), meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budgets.tryAcquireRetry("FEATURE-SERVICE"));
+        }
+
+        assertEquals(10.0, meterRegistry.get("gateway.retry.budget").tag("result", "allowed").counter().count());
+    }
+
+    @Test
+    void deniedRetriesAreCounted() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryBudgetService budgets = new RetryBudgetService(config(true), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            budgets.tryAcquireRetry("FEATURE-SERVICE");
+        }
+
+        assertEquals(2.0, meterRegistry.get("gateway.retry.budget").tag("result", "allowed").counter().count());
+        assertEquals(3.0, meterRegistry.get("gateway.retry.budget").tag("result", "denied").counter().count());
+    }
+}
@@ -0,0 +1,68 @@
+package com.petrichor.loadbalancer.load_balancer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class HealthStatusScannerTest {
+
+    private static DataBuffer chunk(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsTheStatusOfAnActuatorResponse() {
+        HealthStatusScanner scanner = new HealthStatusScanner(1024);
+
+        assertEquals("UP", scanner.feed(chunk("{\"status\":\"UP\",\"components\":{\"db\":{\"status\":\"DOWN\"}}}")));
+    }
+
+    @Test
+    void readsAStatusSplitAcrossChunks() {
+        HealthStatusScanner scanner = new HealthStatusScanner(1024);
+
+        assertNull(scanner.feed(chunk("{ \"sta")));
+        assertNull(scanner.feed(chunk("tus\" :  ")));
+        assertNull(scanner.feed(chunk("\"OUT_OF_")));
+        assertEquals("OUT_OF_SERVICE", scanner.feed(chunk("SERVICE\" }")));
+    }
+
+    @Test
+    void leavesTheChunkReadPositionAlone() {
+        DataBuffer chunk = chunk("{\"status\":\"UP\"}");
+
+        new HealthStatusScanner(1024).feed(chunk);
+
+        assertEquals(0, chunk.readPosition());
+    }
+
+    @Test
+    void skipsOtherKeysAndValues() {
+        HealthStatusScanner scanner = new HealthStatusScanner(1024);
+
+        assertEquals("DOWN", scanner.feed(chunk("{\"statusCode\":503,\"\"status\"\":1,\"status\":\"DOWN\"}")));
+    }
+
+    @Test
+    void givesUpAfterTheByteBudget() {
+        HealthStatusScanner scanner = new HealthStatusScanner(16);
+
+        assertNull(scanner.feed(chunk("{\"details\":\"padding\",\"status\":\"UP\"}")));
+        assertTrue(scanner.isExhausted());
+    }
+
+    @Test
+    void isNotExhaustedWhileWithinTheBudget() {
+        HealthStatusScanner scanner = new HealthStatusScanner(1024);
+
+        assertNull(scanner.feed(chunk("{\"details\":")));
+        assertFalse(scanner.isExhausted());
+    }
+}